@@ -0,0 +1,84 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus;
+import com.taaseenahmed.eco_budget.entity.CarbonFootprintSource;
+import com.taaseenahmed.eco_budget.entity.Category;
+import com.taaseenahmed.eco_budget.entity.Role;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic test data for the JMH benchmarks: a fixed seed and a fixed base date, so every run measures the same input.
+final class BenchmarkFixtures {
+
+    private static final long SEED = 42L;
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 10, 1, 12, 0);
+    private static final String[] CATEGORIES = {"Groceries", "Transport", "Utilities", "Dining", "Shopping", "Travel", "Entertainment", "Health"};
+    private static final String[] DESCRIPTIONS = {"Tesco Extra", "TfL Travel Charge", "British Gas Direct Debit", "Pret A Manger",
+            "Amazon Marketplace", "Ryanair FR1234", "Netflix Subscription", "Boots Pharmacy", "Shell Petrol Station", ""};
+
+    private BenchmarkFixtures() {
+    }
+
+    static AppUser user() {
+        return AppUser.builder()
+                .id(1L)
+                .firstName("Bench")
+                .lastName("Mark")
+                .email("bench@example.com")
+                .role(Role.USER)
+                .build();
+    }
+
+    static List<Transaction> transactions(int count) {
+        Random random = new Random(SEED);
+        AppUser user = user();
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category(CATEGORIES[i], 0.1 + i * 0.15);
+            category.setId((long) i + 1);
+            categories.add(category);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Category category = categories.get(random.nextInt(categories.size()));
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextDouble() * 250).setScale(2, RoundingMode.HALF_UP);
+            boolean derived = random.nextInt(4) == 0;
+            double carbonFootprint = amount.doubleValue() * (derived ? 0.05 + random.nextDouble() : category.getCarbonMultiplier());
+            transactions.add(Transaction.builder()
+                    .id((long) i + 1)
+                    .appUser(user)
+                    .category(category)
+                    .amount(amount)
+                    .type("EXPENSE")
+                    .date(BASE_DATE.minusMinutes(random.nextInt(60 * 24 * 30)))
+                    .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " " + random.nextInt(10_000))
+                    .carbonFootprint(carbonFootprint)
+                    .isChatGPTDerivedCarbonFootprint(derived)
+                    .carbonFootprintSource(derived ? CarbonFootprintSource.CHATGPT : CarbonFootprintSource.CATEGORY_DEFAULT)
+                    .carbonEnrichmentStatus(derived ? CarbonEnrichmentStatus.COMPLETED : CarbonEnrichmentStatus.NOT_REQUIRED)
+                    .build());
+        }
+        return transactions;
+    }
+
+    // A typical ChatGPT answer: an introduction followed by numbered, partly bolded tips
+    static String completion() {
+        return """
+                Based on your transaction data, here are some recommendations:
+
+                1. **Plan grocery shops**: Your Groceries spending is spread over many small trips; a weekly shop would cut both cost and travel.
+                2. **Switch commuting days**: Transport is your largest carbon category, try cycling or the bus on two days a week.
+                3. **Review subscriptions**: Several recurring Entertainment payments could be consolidated or cancelled.
+                4. **Cook at home more often**: Dining out accounts for a large share of spending; batch cooking saves money and packaging.
+                5. **Compare energy tariffs**: A green tariff for Utilities lowers the footprint of your household energy use.
+                """;
+    }
+}
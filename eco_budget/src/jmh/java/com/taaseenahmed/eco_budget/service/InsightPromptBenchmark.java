@@ -0,0 +1,55 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.util.NumberedTips;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Prompt building for recommendations and benchmarks, over a month of transactions, and parsing the numbered answer.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class InsightPromptBenchmark {
+
+    @Param({"50", "500"})
+    private int transactionCount;
+
+    private List<Transaction> transactions;
+    private String completion;
+
+    @Setup
+    public void setUp() {
+        transactions = BenchmarkFixtures.transactions(transactionCount);
+        completion = BenchmarkFixtures.completion();
+    }
+
+    @Benchmark
+    public String createSpendingPrompt() {
+        return RecommendationService.createSpendingPrompt(transactions);
+    }
+
+    @Benchmark
+    public String createBenchmarkPrompt() {
+        return BenchmarkService.createBenchmarkPrompt(transactions);
+    }
+
+    @Benchmark
+    public List<String> parseRecommendations() {
+        return NumberedTips.parse(completion);
+    }
+}
@@ -0,0 +1,61 @@
+package com.taaseenahmed.eco_budget.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Token checks on the authentication path, with the verified-token cache disabled (every call verifies the HMAC) and enabled.
+// The uncached and cached runs are the before/after measurement for the verified-token cache.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JwtServiceBenchmark {
+
+    private JwtService uncached;
+    private JwtService cached;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        user = new User("bench@example.com", "password", List.of());
+        uncached = new JwtService(0, 60);
+        cached = new JwtService(10_000, 60);
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValidUncached() {
+        return uncached.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValidCached() {
+        return cached.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,55 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taaseenahmed.eco_budget.dto.response.TransactionDTO;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity-to-DTO conversion and the JSON encoding of transaction listings at 1k/10k/100k rows.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TransactionSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Transaction> transactions;
+    private List<TransactionDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Configured like the application's mapper
+        transactions = BenchmarkFixtures.transactions(rows);
+        dtos = transactions.stream().map(TransactionService::convertToDTO).toList();
+    }
+
+    @Benchmark
+    public List<TransactionDTO> convertToDTO() {
+        return transactions.stream().map(TransactionService::convertToDTO).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
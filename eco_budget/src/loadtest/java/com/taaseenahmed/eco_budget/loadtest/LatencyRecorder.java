@@ -0,0 +1,79 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Collects every call's latency per endpoint for one scenario run, then reports throughput and p50/p95/p99.
+// Raw samples are kept (not a histogram) so percentiles are exact; a run of a few minutes is at most a few million longs.
+final class LatencyRecorder {
+
+    @FunctionalInterface
+    interface Call {
+        ApiClient.Response execute() throws Exception;
+    }
+
+    record EndpointResult(String endpoint, long count, long errors, double throughputPerSecond, double p50Millis, double p95Millis, double p99Millis) {
+    }
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    // Times the call under the endpoint label; a non-2xx status or an exception counts as an error and returns null
+    ApiClient.Response record(String endpoint, Call call) {
+        Samples endpointSamples = samples.computeIfAbsent(endpoint, key -> new Samples());
+        long started = System.nanoTime();
+        ApiClient.Response response = null;
+        try {
+            response = call.execute();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Connection refused, timeout, ...: recorded as an error below
+        }
+        boolean success = response != null && response.isSuccess();
+        endpointSamples.add(System.nanoTime() - started, success);
+        return success ? response : null;
+    }
+
+    List<EndpointResult> results(double elapsedSeconds) {
+        List<EndpointResult> results = new ArrayList<>();
+        new TreeMap<>(samples).forEach((endpoint, endpointSamples) -> results.add(endpointSamples.summarise(endpoint, elapsedSeconds)));
+        return results;
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long elapsedNanos, boolean success) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsedNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointResult summarise(String endpoint, double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new EndpointResult(endpoint, count, errors, count / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99));
+        }
+
+        // Nearest-rank percentile, in milliseconds
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
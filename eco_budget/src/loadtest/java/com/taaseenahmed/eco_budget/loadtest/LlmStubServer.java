@@ -0,0 +1,187 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Local stand-in for the OpenAI chat completions endpoint, so load tests never reach (or pay for) the real API.
+// Latency is log-normal around the configured median; a share of requests fail with 429 or 500. Answers are shaped like the
+// real ones for each prompt the application sends: a bare multiplier, a JSON map of multipliers, or numbered tips.
+// Streaming requests ("stream": true) are answered as server-sent chunks followed by "data: [DONE]".
+public class LlmStubServer implements AutoCloseable {
+
+    private static final Pattern BATCH_ITEM = Pattern.compile("(?m)^(\\d+)\\. Category:");
+    private static final String TIPS = """
+            1. **Plan your grocery shopping**: A weekly shop instead of several small trips saves money and travel emissions.
+            2. **Use public transport**: Replacing two car journeys a week with the bus or train cuts your transport footprint.
+            3. **Review subscriptions**: Cancel recurring payments you no longer use.
+            4. **Choose a green energy tariff**: Renewable electricity lowers the footprint of your utilities.
+            5. **Cook at home more often**: Eating out less reduces both spending and food packaging.
+            """;
+
+    private final int port;
+    private final double medianLatencyMillis;
+    private final double latencySigma;
+    private final double errorRate;
+    private final double rateLimitRate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public LlmStubServer(int port, double medianLatencyMillis, double latencySigma, double errorRate, double rateLimitRate) {
+        this.port = port;
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.latencySigma = latencySigma;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    public LlmStubServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newFixedThreadPool(64); // Latency is simulated by sleeping, so each in-flight call holds a thread
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+        System.out.printf("LLM stub listening on http://localhost:%d/v1/chat/completions (median %.0f ms, sigma %.2f, errors %.1f%%, 429s %.1f%%)%n",
+                port, medianLatencyMillis, latencySigma, errorRate * 100, rateLimitRate * 100);
+        return this;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            JsonNode messages = request.path("messages");
+            String prompt = messages.path(messages.size() - 1).path("content").asText("");
+            boolean stream = request.path("stream").asBoolean(false);
+            long latency = sampleLatencyMillis();
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < rateLimitRate + errorRate) {
+                sleep(latency / 4); // Failures come back faster than completions
+                failures.incrementAndGet();
+                boolean rateLimited = roll < rateLimitRate;
+                send(exchange, rateLimited ? 429 : 500, "application/json",
+                        "{\"error\":{\"message\":\"" + (rateLimited ? "Rate limit reached (stub)" : "Internal error (stub)") + "\"}}");
+                return;
+            }
+
+            String answer = answer(prompt);
+            if (stream) {
+                streamAnswer(exchange, answer, latency);
+            } else {
+                sleep(latency);
+                ObjectNode body = objectMapper.createObjectNode().put("id", "chatcmpl-stub").put("object", "chat.completion");
+                ObjectNode choice = body.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop");
+                choice.putObject("message").put("role", "assistant").put("content", answer);
+                send(exchange, 200, "application/json", objectMapper.writeValueAsString(body));
+            }
+        }
+    }
+
+    // About a fifth of the latency before the first chunk, the rest spread over the remaining chunks
+    private void streamAnswer(HttpExchange exchange, String answer, long latency) throws IOException {
+        List<String> chunks = chunks(answer);
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        sleep(latency / 5);
+        long perChunk = (latency - latency / 5) / Math.max(1, chunks.size());
+        for (String chunk : chunks) {
+            ObjectNode event = objectMapper.createObjectNode().put("id", "chatcmpl-stub").put("object", "chat.completion.chunk");
+            event.putArray("choices").addObject().put("index", 0).putObject("delta").put("content", chunk);
+            out.write(("data: " + objectMapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(perChunk);
+        }
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String answer(String prompt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (prompt.contains("JSON object mapping each transaction number")) {
+            StringBuilder json = new StringBuilder("{");
+            Matcher matcher = BATCH_ITEM.matcher(prompt);
+            while (matcher.find()) {
+                json.append(json.length() > 1 ? ", " : "").append('"').append(matcher.group(1)).append("\": ")
+                        .append(String.format(Locale.ROOT, "%.2f", 0.05 + random.nextDouble()));
+            }
+            return json.append("}").toString();
+        }
+        if (prompt.contains("single numeric carbon footprint multiplier")) {
+            return String.format(Locale.ROOT, "%.2f", 0.05 + random.nextDouble());
+        }
+        return TIPS;
+    }
+
+    private long sampleLatencyMillis() {
+        if (medianLatencyMillis <= 0) {
+            return 0;
+        }
+        return Math.round(medianLatencyMillis * Math.exp(latencySigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    // A few words per chunk, like the token deltas of the real API
+    private static List<String> chunks(String answer) {
+        List<String> chunks = new ArrayList<>();
+        String[] words = answer.split("(?<= )");
+        for (int i = 0; i < words.length; i += 3) {
+            chunks.add(String.join("", Arrays.copyOfRange(words, i, Math.min(words.length, i + 3))));
+        }
+        return chunks;
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Seeds N users x M transactions through the public API: register, then one CSV import per user into the predefined
+// categories, plus a budget so the budget listing has progress to compute. Going through the API keeps the generator
+// independent of the schema, and the import endpoint makes even large M cheap.
+final class LoadDataGenerator {
+
+    static final String PASSWORD = "load-test-password";
+
+    // Known merchants (scored by the emission-factor table) mixed with descriptions only ChatGPT (the stub) can score
+    private static final String[] DESCRIPTIONS = {"Tesco Extra", "Shell petrol station", "TfL travel", "British Gas",
+            "Ryanair flight", "Netflix", "Pret A Manger", "Boots", "Amazon order", "Corner shop", "Local market stall",
+            "Cinema tickets", "Hairdresser", "Garden centre", ""};
+
+    private final ApiClient api;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long seed;
+
+    LoadDataGenerator(ApiClient api, long seed) {
+        this.api = api;
+        this.seed = seed;
+    }
+
+    List<LoadUser> seed(String runId, int users, int transactionsPerUser, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<LoadUser>> futures = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> seedUser(runId, index, transactionsPerUser)));
+            }
+            List<LoadUser> seeded = new ArrayList<>();
+            for (Future<LoadUser> future : futures) {
+                seeded.add(future.get());
+            }
+            return seeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LoadUser seedUser(String runId, int index, int transactionsPerUser) throws Exception {
+        Random random = new Random(seed + index); // Same data for the same seed, whatever the thread scheduling
+        String email = "load-" + runId + "-" + index + "@example.com";
+
+        String registration = objectMapper.writeValueAsString(Map.of(
+                "firstName", "Load", "lastName", "User " + index, "email", email, "password", PASSWORD));
+        ApiClient.Response registered = expectSuccess(api.post("/api/public/auth/register", null, "application/json", registration), "register " + email);
+        String token = objectMapper.readTree(registered.body()).path("token").asText();
+
+        List<Long> categoryIds = new ArrayList<>();
+        List<String> categoryNames = new ArrayList<>();
+        for (JsonNode category : objectMapper.readTree(expectSuccess(api.get("/api/categories", token), "list categories").body())) {
+            if (!"Income".equals(category.path("name").asText())) {
+                categoryIds.add(category.path("id").asLong());
+                categoryNames.add(category.path("name").asText());
+            }
+        }
+
+        if (transactionsPerUser > 0) {
+            StringBuilder csv = new StringBuilder("date,amount,type,category,description\n");
+            LocalDate today = LocalDate.now();
+            for (int i = 0; i < transactionsPerUser; i++) {
+                csv.append(today.minusDays(random.nextInt(90))).append(',')
+                        .append(String.format(Locale.ROOT, "%.2f", 1 + random.nextDouble() * 150)).append(",EXPENSE,")
+                        .append(categoryNames.get(random.nextInt(categoryNames.size()))).append(',')
+                        .append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]).append('\n');
+            }
+            expectSuccess(api.post("/api/transaction/import?format=csv", token, "text/csv", csv.toString()), "import for " + email);
+        }
+
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        String budget = objectMapper.writeValueAsString(Map.of(
+                "categoryId", categoryIds.get(random.nextInt(categoryIds.size())),
+                "amount", 200 + random.nextInt(800),
+                "startDate", monthStart.toString(),
+                "endDate", monthStart.plusMonths(1).minusSeconds(1).toString()));
+        expectSuccess(api.post("/api/budgets/create", token, "application/json", budget), "budget for " + email);
+
+        return new LoadUser(email, PASSWORD, categoryIds, token);
+    }
+
+    private static ApiClient.Response expectSuccess(ApiClient.Response response, String action) {
+        if (!response.isSuccess()) {
+            throw new IllegalStateException("Seeding failed (" + action + "): HTTP " + response.status() + " " + response.body());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,72 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One iteration of what a user does on each screen; every call is timed under its own endpoint label.
+enum LoadScenario {
+
+    LOGIN {
+        @Override
+        void run(ApiClient api, LoadUser user, LatencyRecorder recorder) throws Exception {
+            String body = JSON.writeValueAsString(Map.of("email", user.getEmail(), "password", user.getPassword()));
+            ApiClient.Response response = recorder.record("POST /api/public/auth/authenticate",
+                    () -> api.post("/api/public/auth/authenticate", null, "application/json", body));
+            if (response != null) {
+                user.setToken(JSON.readTree(response.body()).path("token").asText());
+            }
+        }
+    },
+
+    DASHBOARD {
+        @Override
+        void run(ApiClient api, LoadUser user, LatencyRecorder recorder) {
+            String token = user.getToken();
+            for (String path : List.of("/api/analytics/summary", "/api/analytics/categories",
+                    "/api/analytics/timeseries?granularity=day", "/api/transaction/user/page")) {
+                recorder.record("GET " + path.replaceAll("\\?.*", ""), () -> api.get(path, token));
+            }
+        }
+    },
+
+    ADD_TRANSACTION {
+        @Override
+        void run(ApiClient api, LoadUser user, LatencyRecorder recorder) throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Long> categoryIds = user.getCategoryIds();
+            String body = JSON.writeValueAsString(Map.of(
+                    "amount", Math.round((1 + random.nextDouble() * 100) * 100) / 100.0,
+                    "category", Map.of("id", categoryIds.get(random.nextInt(categoryIds.size()))),
+                    "type", "EXPENSE",
+                    "date", LocalDateTime.now().withNano(0).toString(),
+                    // Mostly merchants the emission-factor table knows, sometimes one that goes to the LLM stub
+                    "description", random.nextInt(5) == 0 ? "Independent shop " + random.nextInt(1000) : "Tesco groceries"));
+            recorder.record("POST /api/transaction", () -> api.post("/api/transaction", user.getToken(), "application/json", body));
+        }
+    },
+
+    BUDGETS {
+        @Override
+        void run(ApiClient api, LoadUser user, LatencyRecorder recorder) {
+            recorder.record("GET /api/budgets/user", () -> api.get("/api/budgets/user", user.getToken()));
+        }
+    },
+
+    RECOMMENDATIONS {
+        @Override
+        void run(ApiClient api, LoadUser user, LatencyRecorder recorder) {
+            String token = user.getToken();
+            for (String path : List.of("/api/recommendations/spending", "/api/recommendations/carbon-footprint", "/api/benchmarks")) {
+                recorder.record("GET " + path, () -> api.get(path, token));
+            }
+        }
+    };
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    abstract void run(ApiClient api, LoadUser user, LatencyRecorder recorder) throws Exception;
+}
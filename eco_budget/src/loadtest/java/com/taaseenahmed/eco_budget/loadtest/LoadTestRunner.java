@@ -0,0 +1,167 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end load test against a running instance, with ChatGPT replaced by the local LlmStubServer.
+//
+//   1. Start the stub:  mvn -Ploadtest verify -Dloadtest.args="--stub-only=true"
+//   2. Start the app against it:  CHATGPT_API_URL=http://localhost:8089/v1/chat/completions CHATGPT_API_KEY=stub mvn spring-boot:run
+//   3. Run the scenarios:  mvn -Ploadtest verify -Dloadtest.args="--start-stub=false --users=50 --transactions=1000"
+//
+// Or let the runner host the stub itself (the default) and start the app against it before the seeding begins.
+// Each scenario runs for --duration-s at every concurrency level in --levels; throughput and p50/p95/p99 per endpoint are
+// printed and written to --report as CSV.
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        LlmStubServer stub = null;
+        if (bool(options, "start-stub", true) || bool(options, "stub-only", false)) {
+            stub = new LlmStubServer(integer(options, "stub-port", 8089),
+                    decimal(options, "stub-latency-ms", 800),
+                    decimal(options, "stub-latency-sigma", 0.5),
+                    decimal(options, "stub-error-rate", 0.02),
+                    decimal(options, "stub-429-rate", 0.01)).start();
+        }
+        if (bool(options, "stub-only", false)) {
+            Thread.currentThread().join(); // Serve until the process is stopped
+        }
+
+        try {
+            run(options);
+        } finally {
+            if (stub != null) {
+                System.out.printf("LLM stub served %d requests, %d of them failures%n", stub.getRequests(), stub.getFailures());
+                stub.close();
+            }
+        }
+    }
+
+    private static void run(Map<String, String> options) throws Exception {
+        ApiClient api = new ApiClient(options.getOrDefault("base-url", "http://localhost:8080"),
+                Duration.ofSeconds(integer(options, "request-timeout-s", 60)));
+        String runId = options.getOrDefault("run-id", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
+        int users = integer(options, "users", 20);
+        int transactions = integer(options, "transactions", 500);
+        List<Integer> levels = Arrays.stream(options.getOrDefault("levels", "1,4,16,64").split(",")).map(String::trim).map(Integer::valueOf).toList();
+        List<LoadScenario> scenarios = Arrays.stream(options.getOrDefault("scenarios", "login,dashboard,add_transaction,budgets,recommendations").split(","))
+                .map(name -> LoadScenario.valueOf(name.trim().toUpperCase(Locale.ROOT))).toList();
+        long durationMillis = TimeUnit.SECONDS.toMillis(integer(options, "duration-s", 30));
+        Path report = Path.of(options.getOrDefault("report", "target/loadtest/report-" + runId + ".csv"));
+
+        System.out.printf("Seeding %d users x %d transactions (run %s)...%n", users, transactions, runId);
+        long seedingStarted = System.nanoTime();
+        List<LoadUser> seeded = new LoadDataGenerator(api, Long.parseLong(options.getOrDefault("seed", "42")))
+                .seed(runId, users, transactions, integer(options, "seed-threads", 8));
+        System.out.printf("Seeded in %.1f s%n", (System.nanoTime() - seedingStarted) / 1e9);
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(report))) {
+            csv.println("concurrency,scenario,endpoint,requests,errors,throughput_per_s,p50_ms,p95_ms,p99_ms");
+            for (int concurrency : levels) {
+                refreshTokens(api, seeded); // Tokens are short-lived; not part of the measurements
+                for (LoadScenario scenario : scenarios) {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    double elapsedSeconds = drive(api, seeded, scenario, concurrency, durationMillis, recorder);
+                    System.out.printf("%n%s at concurrency %d (%.1f s)%n", scenario, concurrency, elapsedSeconds);
+                    System.out.printf("  %-45s %9s %7s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+                    for (LatencyRecorder.EndpointResult result : recorder.results(elapsedSeconds)) {
+                        System.out.printf("  %-45s %9d %7d %10.1f %9.1f %9.1f %9.1f%n", result.endpoint(), result.count(), result.errors(),
+                                result.throughputPerSecond(), result.p50Millis(), result.p95Millis(), result.p99Millis());
+                        csv.printf(Locale.ROOT, "%d,%s,%s,%d,%d,%.2f,%.2f,%.2f,%.2f%n", concurrency, scenario, result.endpoint(), result.count(),
+                                result.errors(), result.throughputPerSecond(), result.p50Millis(), result.p95Millis(), result.p99Millis());
+                    }
+                    csv.flush();
+                }
+            }
+        }
+        System.out.println("\nReport written to " + report.toAbsolutePath());
+    }
+
+    // Closed-loop virtual users: each one runs the scenario back to back, cycling through the seeded users
+    private static double drive(ApiClient api, List<LoadUser> seeded, LoadScenario scenario, int concurrency,
+                                long durationMillis, LatencyRecorder recorder) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        for (int worker = 0; worker < concurrency; worker++) {
+            int offset = worker;
+            workers.execute(() -> {
+                try {
+                    for (long iteration = 0; System.nanoTime() < deadline && !Thread.currentThread().isInterrupted(); iteration++) {
+                        LoadUser user = seeded.get((int) ((offset + iteration * concurrency) % seeded.size()));
+                        try {
+                            scenario.run(api, user, recorder);
+                        } catch (Exception e) {
+                            // Failed calls are already counted by the recorder; keep the virtual user going
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        workers.shutdown();
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    private static void refreshTokens(ApiClient api, List<LoadUser> seeded) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (LoadUser user : seeded) {
+            String body = objectMapper.writeValueAsString(Map.of("email", user.getEmail(), "password", user.getPassword()));
+            ApiClient.Response response = api.post("/api/public/auth/authenticate", null, "application/json", body);
+            if (response.isSuccess()) {
+                user.setToken(objectMapper.readTree(response.body()).path("token").asText());
+            }
+        }
+    }
+
+    // --name=value arguments
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else if (!arg.isBlank()) {
+                unknown.add(arg);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Expected --name=value arguments, got " + unknown);
+        }
+        return options;
+    }
+
+    private static boolean bool(Map<String, String> options, String name, boolean defaultValue) {
+        return options.containsKey(name) ? Boolean.parseBoolean(options.get(name)) : defaultValue;
+    }
+
+    private static int integer(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+
+    private static double decimal(Map<String, String> options, String name, double defaultValue) {
+        return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+    }
+}
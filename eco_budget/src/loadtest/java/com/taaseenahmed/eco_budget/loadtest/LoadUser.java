@@ -0,0 +1,39 @@
+package com.taaseenahmed.eco_budget.loadtest;
+
+import java.util.List;
+
+// A seeded account; the token is replaced whenever the login scenario (or a token refresh) authenticates again.
+final class LoadUser {
+
+    private final String email;
+    private final String password;
+    private final List<Long> categoryIds;
+    private volatile String token;
+
+    LoadUser(String email, String password, List<Long> categoryIds, String token) {
+        this.email = email;
+        this.password = password;
+        this.categoryIds = categoryIds;
+        this.token = token;
+    }
+
+    String getEmail() {
+        return email;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    List<Long> getCategoryIds() {
+        return categoryIds;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    void setToken(String token) {
+        this.token = token;
+    }
+}
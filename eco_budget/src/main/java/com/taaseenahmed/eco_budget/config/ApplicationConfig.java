@@ -1,6 +1,6 @@
 package com.taaseenahmed.eco_budget.config;
 
-import com.taaseenahmed.eco_budget.repository.AppUserRepository;
+import com.taaseenahmed.eco_budget.service.AppUserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,12 +17,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final AppUserRepository repository; // Repository for accessing user data.
+    private final AppUserCache appUserCache; // Cached user lookups, so authenticated requests rarely hit the database.
 
     // Bean to provide user details to Spring Security for authentication.
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByEmail(username) // Find user by email (used as username).
+        return username -> appUserCache.findByEmail(username) // Find user by email (used as username).
                 .orElseThrow(() -> new UsernameNotFoundException("User not found")); // Throw exception if user is not found.
     }
 
@@ -1,6 +1,8 @@
 package com.taaseenahmed.eco_budget.config;
 
 import com.taaseenahmed.eco_budget.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +31,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization"); // Get the "Authorization" header from the request.
         final String jwt; // Variable to hold the JWT token.
+        final Claims claims; // Claims of the verified token, parsed once for the whole request.
         final String userEmail; // Variable to hold the extracted email from the JWT.
 
         // Check if the Authorization header exists and starts with "Bearer ".
@@ -38,14 +41,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7); // Extract the JWT token (after "Bearer ").
-        userEmail = jwtService.extractUsername(jwt); // Extract the username (email) from the JWT token.
+        try {
+            claims = jwtService.verify(jwt); // Check signature and expiry once (or hit the verified-token cache).
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response); // Invalid or expired token, continue unauthenticated.
+            return;
+        }
+        userEmail = claims.getSubject(); // Extract the username (email) from the JWT token.
 
         // If the userEmail is not null and the current authentication context is empty (no active authentication).
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             // Load the user details from the database based on the extracted email.
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
             // Check if the JWT is valid for the user.
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 // Create an authentication token using the user details.
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 // Set additional details for the authentication token.
@@ -0,0 +1,57 @@
+package com.taaseenahmed.eco_budget.config;
+
+import com.taaseenahmed.eco_budget.util.QueryCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Counts the SQL statements each request runs, authentication lookups included, and warns when a request goes over budget.
+// The header is meant for dev, so an N+1 shows up in the browser's network tab before it reaches production.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final int warnThreshold;
+    private final boolean headerEnabled;
+
+    public QueryCountFilter(@Value("${query-count.warn-threshold:20}") int warnThreshold,
+                            @Value("${query-count.header-enabled:false}") boolean headerEnabled) {
+        this.warnThreshold = warnThreshold;
+        this.headerEnabled = headerEnabled;
+    }
+
+    public boolean isHeaderEnabled() {
+        return headerEnabled;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        QueryCounter.start();
+        long statements;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        // Responses with a body already carry the header (QueryCountHeaderAdvice); this covers empty ones
+        if (headerEnabled && !response.isCommitted() && !response.containsHeader(HEADER)) {
+            response.setHeader(HEADER, Long.toString(statements));
+        }
+        if (statements > warnThreshold) {
+            log.warn("{} {} ran {} SQL statements (budget {})", request.getMethod(), request.getRequestURI(), statements, warnThreshold);
+        }
+    }
+}
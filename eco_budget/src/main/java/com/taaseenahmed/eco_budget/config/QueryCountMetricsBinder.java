@@ -0,0 +1,20 @@
+package com.taaseenahmed.eco_budget.config;
+
+import com.taaseenahmed.eco_budget.util.QueryCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Publishes the statements QueryCountInspector sees as db.statements, so the statement rate is graphed without
+// turning on Hibernate statistics in production.
+@Component
+public class QueryCountMetricsBinder implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("db.statements", QueryCounter.class, counter -> QueryCounter.total())
+                .description("SQL statements prepared by Hibernate")
+                .register(registry);
+    }
+}
@@ -1,6 +1,8 @@
 package com.taaseenahmed.eco_budget.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -33,6 +35,8 @@ public class SecurityConfiguration {
                 .csrf(csrf -> csrf.disable()) // Disable CSRF protection (common in stateless APIs).
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/public/auth/**").permitAll() // Allow unauthenticated access to authentication endpoints (e.g., login, register).
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll() // Health checks and metric scrapes, served on the management port.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // Completion of a streamed response (SSE, exports) that was authorised on its original request.
                         .anyRequest().authenticated() // Require authentication for all other endpoints.
                 )
                 .sessionManagement(session -> session
@@ -58,6 +62,7 @@ public class SecurityConfiguration {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Accept", "Origin"));
+        configuration.setExposedHeaders(Arrays.asList(QueryCountFilter.HEADER)); // Let the frontend read per-request query counts in dev
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
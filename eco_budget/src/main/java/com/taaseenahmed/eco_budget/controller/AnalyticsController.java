@@ -0,0 +1,63 @@
+package com.taaseenahmed.eco_budget.controller;
+
+import com.taaseenahmed.eco_budget.dto.response.AnalyticsSummaryDTO;
+import com.taaseenahmed.eco_budget.dto.response.CategoryBreakdownDTO;
+import com.taaseenahmed.eco_budget.dto.response.TimeSeriesDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Aggregated spending and carbon figures for the dashboard; dates are inclusive and default to the current month.
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/summary")
+    public ResponseEntity<AnalyticsSummaryDTO> getSummary(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @AuthenticationPrincipal AppUser user) {
+        try {
+            return ResponseEntity.ok(analyticsService.getSummary(user, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryBreakdownDTO>> getCategoryBreakdown(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                           @AuthenticationPrincipal AppUser user) {
+        try {
+            return ResponseEntity.ok(analyticsService.getCategoryBreakdown(user, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // granularity is day, week or month; points caps the number of returned points by merging neighbouring buckets
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeSeriesDTO> getTimeSeries(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                       @RequestParam(defaultValue = "day") String granularity,
+                                                       @RequestParam(required = false) Integer points,
+                                                       @RequestParam(required = false) Long categoryId,
+                                                       @AuthenticationPrincipal AppUser user) {
+        try {
+            return ResponseEntity.ok(analyticsService.getTimeSeries(user, from, to, granularity, points, categoryId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
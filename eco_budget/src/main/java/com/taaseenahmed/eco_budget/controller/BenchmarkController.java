@@ -1,14 +1,17 @@
 package com.taaseenahmed.eco_budget.controller;
 
 import com.taaseenahmed.eco_budget.dto.response.BenchmarkDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.service.BenchmarkService;
+import com.taaseenahmed.eco_budget.service.InsightStreamService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-
-import java.security.Principal;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/benchmarks")
@@ -16,10 +19,17 @@ import java.security.Principal;
 public class BenchmarkController {
 
     private final BenchmarkService benchmarkService;
+    private final InsightStreamService insightStreamService;
 
     @GetMapping
-    public ResponseEntity<BenchmarkDTO> getBenchmarks(Principal principal) {
-        BenchmarkDTO response = benchmarkService.createBenchmarkResponse(principal.getName());
+    public ResponseEntity<BenchmarkDTO> getBenchmarks(@AuthenticationPrincipal AppUser user) {
+        BenchmarkDTO response = benchmarkService.createBenchmarkResponse(user);
         return ResponseEntity.ok(response);
     }
+
+    // Server-sent events: a "tip" event per benchmark as it is generated, then a "done" event with the full DTO
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBenchmarks(@AuthenticationPrincipal AppUser user) {
+        return insightStreamService.streamBenchmarks(user);
+    }
 }
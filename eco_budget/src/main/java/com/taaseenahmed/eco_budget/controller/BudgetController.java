@@ -1,14 +1,15 @@
 package com.taaseenahmed.eco_budget.controller;
 
 import com.taaseenahmed.eco_budget.dto.response.BudgetDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.service.BudgetService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -19,14 +20,14 @@ public class BudgetController {
     private final BudgetService budgetService;
 
     @PostMapping("/create")
-    public ResponseEntity<BudgetDTO> createBudget(@RequestBody BudgetDTO budgetDTO, Principal principal) {
-        BudgetDTO response = budgetService.createBudget(budgetDTO, principal.getName());
+    public ResponseEntity<BudgetDTO> createBudget(@RequestBody BudgetDTO budgetDTO, @AuthenticationPrincipal AppUser user) {
+        BudgetDTO response = budgetService.createBudget(budgetDTO, user);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping("/user")
-    public ResponseEntity<List<BudgetDTO>> getBudgetsByAuthenticatedUser(Principal principal) {
-        List<BudgetDTO> budgetDTOList = budgetService.getBudgetsByUserEmail(principal.getName());
+    public ResponseEntity<List<BudgetDTO>> getBudgetsByAuthenticatedUser(@AuthenticationPrincipal AppUser user) {
+        List<BudgetDTO> budgetDTOList = budgetService.getBudgetsByUser(user);
         return ResponseEntity.ok(budgetDTOList);
     }
 
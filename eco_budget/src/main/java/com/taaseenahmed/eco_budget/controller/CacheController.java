@@ -0,0 +1,47 @@
+package com.taaseenahmed.eco_budget.controller;
+
+import com.taaseenahmed.eco_budget.dto.response.CacheStatsDTO;
+import com.taaseenahmed.eco_budget.service.AppUserCache;
+import com.taaseenahmed.eco_budget.service.CarbonMultiplierCache;
+import com.taaseenahmed.eco_budget.service.InsightResponseCache;
+import com.taaseenahmed.eco_budget.service.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CarbonMultiplierCache carbonMultiplierCache;
+    private final JwtService jwtService;
+    private final AppUserCache appUserCache;
+    private final InsightResponseCache insightResponseCache;
+
+    // Hit/miss/eviction counters for the carbon multiplier cache
+    @GetMapping("/carbon-multiplier")
+    public ResponseEntity<CacheStatsDTO> getCarbonMultiplierCacheStats() {
+        return ResponseEntity.ok(carbonMultiplierCache.getStats());
+    }
+
+    // Hit/miss/eviction counters for the verified JWT cache
+    @GetMapping("/jwt")
+    public ResponseEntity<CacheStatsDTO> getJwtCacheStats() {
+        return ResponseEntity.ok(jwtService.getVerifiedTokenCacheStats());
+    }
+
+    // Hit/miss/eviction counters for the authenticated user cache
+    @GetMapping("/users")
+    public ResponseEntity<CacheStatsDTO> getUserCacheStats() {
+        return ResponseEntity.ok(appUserCache.getStats());
+    }
+
+    // Hit/miss/eviction counters for the recommendation and benchmark completion cache
+    @GetMapping("/insights")
+    public ResponseEntity<CacheStatsDTO> getInsightResponseCacheStats() {
+        return ResponseEntity.ok(insightResponseCache.getStats());
+    }
+}
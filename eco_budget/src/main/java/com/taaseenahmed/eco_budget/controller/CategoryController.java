@@ -1,13 +1,14 @@
 package com.taaseenahmed.eco_budget.controller;
 
 import com.taaseenahmed.eco_budget.dto.response.CategoryDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -18,13 +19,13 @@ public class CategoryController {
     private final CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getCategories(Principal principal) {
-        if (principal == null) {
+    public ResponseEntity<List<CategoryDTO>> getCategories(@AuthenticationPrincipal AppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         // Fetch categories for the logged-in user
-        List<CategoryDTO> categoryDTOs = categoryService.getCategoriesForUser(principal.getName());
+        List<CategoryDTO> categoryDTOs = categoryService.getCategoriesForUser(user);
 
         // Return the list of CategoryDTO objects
         return ResponseEntity.ok(categoryDTOs);
@@ -32,13 +33,13 @@ public class CategoryController {
 
     // Add a new category for a user
     @PostMapping
-    public ResponseEntity<CategoryDTO> addCategory(@RequestBody CategoryDTO categoryDTO, Principal principal) {
-        if (principal == null) {
+    public ResponseEntity<CategoryDTO> addCategory(@RequestBody CategoryDTO categoryDTO, @AuthenticationPrincipal AppUser user) {
+        if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         // Add the new category and get the result as CategoryDTO
-        CategoryDTO savedCategoryDTO = categoryService.addCategory(categoryDTO.getName(), principal.getName());
+        CategoryDTO savedCategoryDTO = categoryService.addCategory(categoryDTO.getName(), user);
 
         // Return the created CategoryDTO with a CREATED status
         return ResponseEntity.status(HttpStatus.CREATED).body(savedCategoryDTO);
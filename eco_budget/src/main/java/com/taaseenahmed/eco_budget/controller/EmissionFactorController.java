@@ -0,0 +1,23 @@
+package com.taaseenahmed.eco_budget.controller;
+
+import com.taaseenahmed.eco_budget.dto.response.EmissionFactorStatsDTO;
+import com.taaseenahmed.eco_budget.service.EmissionFactorEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/emission-factors")
+@RequiredArgsConstructor
+public class EmissionFactorController {
+
+    private final EmissionFactorEngine emissionFactorEngine;
+
+    // Table version, hit rate and match latency of the offline emission-factor engine
+    @GetMapping("/stats")
+    public ResponseEntity<EmissionFactorStatsDTO> getStats() {
+        return ResponseEntity.ok(emissionFactorEngine.getStats());
+    }
+}
@@ -1,14 +1,15 @@
 package com.taaseenahmed.eco_budget.controller;
 
 import com.taaseenahmed.eco_budget.dto.response.GoalDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.service.GoalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -19,14 +20,14 @@ public class GoalController {
     private final GoalService goalService;
 
     @PostMapping("/create")
-    public ResponseEntity<GoalDTO> createGoal(@RequestBody GoalDTO goalDTO, Principal principal) {
-        GoalDTO response = goalService.createGoal(goalDTO, principal.getName());
+    public ResponseEntity<GoalDTO> createGoal(@RequestBody GoalDTO goalDTO, @AuthenticationPrincipal AppUser user) {
+        GoalDTO response = goalService.createGoal(goalDTO, user);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping("/user")
-    public ResponseEntity<List<GoalDTO>> getGoalsByAuthenticatedUser(Principal principal) {
-        List<GoalDTO> goalDTOList = goalService.getGoalByUserEmail(principal.getName());
+    public ResponseEntity<List<GoalDTO>> getGoalsByAuthenticatedUser(@AuthenticationPrincipal AppUser user) {
+        List<GoalDTO> goalDTOList = goalService.getGoalsByUser(user);
         return ResponseEntity.ok(goalDTOList);
     }
 
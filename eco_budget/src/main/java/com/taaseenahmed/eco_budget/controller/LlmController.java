@@ -0,0 +1,23 @@
+package com.taaseenahmed.eco_budget.controller;
+
+import com.taaseenahmed.eco_budget.dto.response.LlmResilienceStatsDTO;
+import com.taaseenahmed.eco_budget.service.LlmGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/llm")
+@RequiredArgsConstructor
+public class LlmController {
+
+    private final LlmGuard llmGuard;
+
+    // Circuit breaker state and rejection counters for the ChatGPT integration
+    @GetMapping("/resilience")
+    public ResponseEntity<LlmResilienceStatsDTO> getResilienceStats() {
+        return ResponseEntity.ok(llmGuard.getStats());
+    }
+}
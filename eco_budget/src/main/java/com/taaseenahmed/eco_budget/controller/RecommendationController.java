@@ -1,14 +1,18 @@
 package com.taaseenahmed.eco_budget.controller;
 
 import com.taaseenahmed.eco_budget.dto.response.RecommendationDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.service.InsightStreamService;
 import com.taaseenahmed.eco_budget.service.RecommendationService;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.security.Principal;
 
 
 @RestController
@@ -17,16 +21,28 @@ import java.security.Principal;
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
+    private final InsightStreamService insightStreamService;
 
     @GetMapping("/spending")
-    public ResponseEntity<RecommendationDTO> getSpendingRecommendations(Principal principal) {
-        RecommendationDTO response = recommendationService.createSpendingResponse(principal.getName());
+    public ResponseEntity<RecommendationDTO> getSpendingRecommendations(@AuthenticationPrincipal AppUser user) {
+        RecommendationDTO response = recommendationService.createSpendingResponse(user);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/carbon-footprint")
-    public ResponseEntity<RecommendationDTO> getCarbonFootprintRecommendations(Principal principal) {
-        RecommendationDTO response = recommendationService.createCarbonFootprintResponse(principal.getName());
+    public ResponseEntity<RecommendationDTO> getCarbonFootprintRecommendations(@AuthenticationPrincipal AppUser user) {
+        RecommendationDTO response = recommendationService.createCarbonFootprintResponse(user);
         return ResponseEntity.ok(response);
     }
+
+    // Server-sent events: a "tip" event per recommendation as it is generated, then a "done" event with the full DTO
+    @GetMapping(value = "/spending/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSpendingRecommendations(@AuthenticationPrincipal AppUser user) {
+        return insightStreamService.streamSpendingRecommendations(user);
+    }
+
+    @GetMapping(value = "/carbon-footprint/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCarbonFootprintRecommendations(@AuthenticationPrincipal AppUser user) {
+        return insightStreamService.streamCarbonFootprintRecommendations(user);
+    }
 }
@@ -1,15 +1,29 @@
 package com.taaseenahmed.eco_budget.controller;
 
+import com.taaseenahmed.eco_budget.dto.request.TransactionFilterRequest;
 import com.taaseenahmed.eco_budget.dto.response.TransactionDTO;
+import com.taaseenahmed.eco_budget.dto.response.TransactionImportResultDTO;
+import com.taaseenahmed.eco_budget.dto.response.TransactionPageDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.CarbonFootprintSource;
+import com.taaseenahmed.eco_budget.service.TransactionExportService;
+import com.taaseenahmed.eco_budget.service.TransactionImportService;
 import com.taaseenahmed.eco_budget.service.TransactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
-import java.security.Principal;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,25 +32,78 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService; // Service handling transaction logic.
+    private final TransactionImportService transactionImportService; // Service handling bulk imports.
+    private final TransactionExportService transactionExportService; // Service handling streaming exports.
 
     // Endpoint to create a new transaction for the authenticated user.
     @PostMapping
-    public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionDTO, Principal principal) {
-        TransactionDTO response = transactionService.createTransaction(transactionDTO, principal.getName());
-        String source = response.getIsChatGPTDerivedCarbonFootprint() ? "ChatGPT" : "default category multiplier";
+    public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionDTO, @AuthenticationPrincipal AppUser user) {
+        TransactionDTO response = transactionService.createTransaction(transactionDTO, user);
+        String source = CarbonFootprintSource.valueOf(response.getCarbonFootprintSource()).getLabel();
         return ResponseEntity.status(HttpStatus.CREATED)
                 .header("X-Carbon-Footprint-Source", source) // Custom header for source notification
+                .header("X-Carbon-Enrichment-Status", String.valueOf(response.getCarbonEnrichmentStatus())) // PENDING while refined in the background
                 .body(response); // Return the created transaction in the response body
     }
 
+    // Endpoint to bulk import a CSV or OFX bank export streamed in the request body for the authenticated user.
+    @PostMapping("/import")
+    public ResponseEntity<TransactionImportResultDTO> importTransactions(@RequestParam(defaultValue = "csv") String format,
+                                                                         @RequestParam(required = false) String defaultCategory,
+                                                                         HttpServletRequest request, @AuthenticationPrincipal AppUser user) throws IOException {
+        try {
+            TransactionImportResultDTO result = transactionImportService.importTransactions(
+                    request.getInputStream(), format, defaultCategory, user);
+            return ResponseEntity.ok(result); // Summary with per-row errors
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()); // Unsupported format or unreadable header
+        }
+    }
+
+    // Endpoint to stream the authenticated user's transactions as CSV or NDJSON, gzip-compressed when the client accepts it.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "csv") String format,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                    @RequestParam(required = false) List<String> columns,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                    @AuthenticationPrincipal AppUser user) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body;
+        try {
+            body = transactionExportService.export(user, format, from, to, columns, gzip);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()); // Unknown format or column
+        }
+
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + (ndjson ? "ndjson" : "csv") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     // Fetch transactions for the authenticated user using their email (from the JWT token or session)
     @GetMapping("/user")
-    public ResponseEntity<List<TransactionDTO>> getTransactionsByAuthenticatedUser(Principal principal) {
+    public ResponseEntity<List<TransactionDTO>> getTransactionsByAuthenticatedUser(@AuthenticationPrincipal AppUser user) {
         // Retrieve transactions associated with the authenticated user
-        List<TransactionDTO> transactionDTOList = transactionService.getTransactionsByUserEmail(principal.getName());
+        List<TransactionDTO> transactionDTOList = transactionService.getTransactionsByUser(user);
         return ResponseEntity.ok(transactionDTOList); // Return the list of transactions
     }
 
+    // Fetch one page of the authenticated user's transactions, filtered by date range, category, type and amount.
+    @GetMapping("/user/page")
+    public ResponseEntity<TransactionPageDTO> getTransactionPageByAuthenticatedUser(TransactionFilterRequest filter, @AuthenticationPrincipal AppUser user) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionPage(user, filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()); // Bad cursor or sort option
+        }
+    }
+
     // Endpoint to fetch all transactions in the system.
     @GetMapping
     public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
@@ -1,5 +1,6 @@
 package com.taaseenahmed.eco_budget.dto.request;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,6 +16,9 @@ public class ChatGPTRequest {
     private List<Message> messages;
     private double temperature;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stream; // True to receive the completion as server-sent chunks
+
     // Constructor for creating a request with a system message prompt
     public ChatGPTRequest(String model, String prompt, double temperature) {
         this.model = model;
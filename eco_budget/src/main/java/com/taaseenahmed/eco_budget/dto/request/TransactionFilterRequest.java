@@ -0,0 +1,32 @@
+package com.taaseenahmed.eco_budget.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Query parameters for the paginated transaction listing; every filter is optional.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilterRequest {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from; // Inclusive
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to; // Inclusive
+
+    private Long categoryId;
+    private String type; // "Income" or "Expense"
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String sort; // dateDesc (default), dateAsc, amountDesc or amountAsc
+    private String cursor; // Opaque value from the previous page's nextCursor
+    private Integer limit;
+}
@@ -0,0 +1,25 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Headline figures for a user's spending over a period.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsSummaryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal totalExpense;
+    private BigDecimal totalIncome;
+    private BigDecimal net; // Income minus expense
+    private double totalCarbonFootprint;
+    private long transactionCount;
+    private BigDecimal averageDailyExpense;
+}
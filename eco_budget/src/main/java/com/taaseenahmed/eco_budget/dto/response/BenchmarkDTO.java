@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -13,4 +14,6 @@ import java.util.List;
 @Builder
 public class BenchmarkDTO {
     private List<String> benchmarks;
+    private LocalDateTime lastUpdated; // Null until the first benchmarks have been generated
+    private boolean refreshPending; // Newer benchmarks are being prepared in the background
 }
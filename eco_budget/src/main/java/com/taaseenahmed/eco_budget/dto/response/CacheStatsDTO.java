@@ -0,0 +1,23 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Hit/miss/eviction counters for an in-process cache and its persistent backing store (if any).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String name;
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long persistentHits;
+    private long persistentMisses;
+}
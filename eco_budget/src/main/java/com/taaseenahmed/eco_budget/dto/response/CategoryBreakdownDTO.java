@@ -0,0 +1,24 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One category's share of a user's spending and carbon footprint over a period.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryBreakdownDTO {
+    private Long categoryId;
+    private String categoryName;
+    private BigDecimal expense;
+    private BigDecimal income;
+    private double carbonFootprint;
+    private long transactionCount;
+    private double expenseShare; // Percentage of the period's total expense
+    private double carbonShare; // Percentage of the period's total carbon footprint
+}
@@ -0,0 +1,22 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Usage of the offline emission-factor table that is consulted before ChatGPT.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmissionFactorStatsDTO {
+    private boolean enabled;
+    private String version;
+    private int keywords;
+    private long lookups;
+    private long hits;
+    private double hitRate; // Percentage of lookups answered without ChatGPT
+    private long averageMatchNanos;
+    private long maxMatchNanos;
+}
@@ -0,0 +1,24 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Current state of the guard in front of the ChatGPT API.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LlmResilienceStatsDTO {
+    private String circuitState; // CLOSED, OPEN or HALF_OPEN
+    private double failureRate; // Percentage over the breaker's sliding window
+    private int bufferedCalls;
+    private int availableConcurrentCalls;
+    private double availableRateLimitTokens;
+    private long successfulCalls;
+    private long failedCalls;
+    private long rejectedByCircuitBreaker;
+    private long rejectedByRateLimiter;
+    private long rejectedByBulkhead;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -14,4 +15,6 @@ import java.util.List;
 public class RecommendationDTO {
     private List<String> spendingRecommendations;
     private List<String> carbonFootprintRecommendations;
+    private LocalDateTime lastUpdated; // When the stored results were generated, null if there are none yet
+    private boolean refreshPending; // A background refresh is due because transactions changed (or nothing is stored yet)
 }
@@ -0,0 +1,34 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Spending and carbon totals over time, one point per bucket with empty buckets included as zeros.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesDTO {
+    private String granularity; // day, week or month
+    private int bucketSize; // Granularity units merged into each point when downsampled, otherwise 1
+    private LocalDate from;
+    private LocalDate to;
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate periodStart;
+        private BigDecimal expense;
+        private BigDecimal income;
+        private double carbonFootprint;
+        private long transactionCount;
+    }
+}
@@ -21,5 +21,7 @@ public class TransactionDTO {
     private String description;
     private Double carbonFootprint;
     private Boolean isChatGPTDerivedCarbonFootprint;
+    private String carbonFootprintSource; // CATEGORY_DEFAULT, EMISSION_FACTOR_TABLE or CHATGPT
     private Double carbonMultiplierUsed;
+    private String carbonEnrichmentStatus;
 }
@@ -0,0 +1,32 @@
+package com.taaseenahmed.eco_budget.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Summary of a bulk transaction import, with the rows that could not be imported.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionImportResultDTO {
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long pendingCarbonEnrichment;
+    private long durationMillis;
+    private List<RowError> errors;
+    private boolean errorsTruncated; // True when more rows failed than are listed in errors
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long row;
+        private String message;
+    }
+}
@@ -5,10 +5,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -32,11 +34,13 @@ public class AppUser implements UserDetails {
     @Enumerated(EnumType.STRING) // Stores the role (e.g., "USER", "ADMIN") as a string in the database.
     private Role role;
 
-    @Column(nullable = false)
-    private boolean transactionsUpdatedForRecommendations;
+    // Bumped by an atomic UPDATE whenever a recent transaction changes; recommendations and benchmarks record the version
+    // they were built from. Never written from the entity, so a cached copy of the user cannot roll it back.
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private long dataVersion;
 
-    @Column(nullable = false)
-    private boolean transactionsUpdatedForBenchmarks;
+    private LocalDateTime transactionsUpdatedAt; // Last time dataVersion was bumped by a transaction write, for debouncing background refreshes
 
     // Returns the authorities granted to the user, based on their role.
     @Override
@@ -5,9 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -25,16 +26,31 @@ public class Benchmark {
     @JoinColumn(name = "user_id", nullable = false)
     private AppUser appUser;
 
-    @ElementCollection
-    @CollectionTable(name = "benchmark_list", joinColumns = @JoinColumn(name = "benchmark_id"))
-    @Column(name = "benchmarks", length = 1000) // Increase length
-    private List<String> benchmarks;
+    // The benchmarks and their generation metadata, read and written with the row itself
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private BenchmarkDocument document;
 
     private LocalDateTime lastUpdated;
 
+    // Copies of the document's dataVersion and promptHash, as columns so the staleness query can use them
+    private Long sourceVersion; // AppUser.dataVersion these results were built from
+
+    @Column(length = 64)
+    private String sourceHash; // Hash of the prompt input, so a version bump that changes nothing material is not regenerated
+
     public Benchmark(AppUser appUser) {
         this.appUser = appUser;
-        this.benchmarks = new ArrayList<>();
+        this.document = new BenchmarkDocument();
         this.lastUpdated = LocalDateTime.now();
     }
+
+    public List<String> getBenchmarks() {
+        return document != null ? document.getBenchmarks() : List.of();
+    }
+
+    // Rows from before versioning count as current until the user's data next changes
+    public boolean isCurrentFor(long dataVersion) {
+        return sourceVersion != null ? sourceVersion >= dataVersion : dataVersion == 0;
+    }
 }
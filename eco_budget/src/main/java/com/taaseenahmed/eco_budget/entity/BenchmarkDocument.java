@@ -0,0 +1,29 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stored as one JSONB value on the benchmark row. Bump SCHEMA_VERSION when the shape changes incompatibly.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BenchmarkDocument {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+
+    @Builder.Default
+    private List<String> benchmarks = new ArrayList<>();
+
+    private GenerationMetadata generation;
+}
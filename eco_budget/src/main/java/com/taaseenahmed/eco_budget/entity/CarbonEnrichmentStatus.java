@@ -0,0 +1,9 @@
+package com.taaseenahmed.eco_budget.entity;
+
+// Tracks whether a transaction's carbon footprint has been refined from its description
+public enum CarbonEnrichmentStatus {
+    NOT_REQUIRED, // No description, the category multiplier is final
+    PENDING,      // Saved with the category multiplier, waiting for a background refinement
+    COMPLETED,    // Carbon footprint derived from the description
+    FAILED        // Refinement gave up after retries, the category multiplier is kept
+}
@@ -0,0 +1,18 @@
+package com.taaseenahmed.eco_budget.entity;
+
+// Where a transaction's carbon footprint multiplier came from
+public enum CarbonFootprintSource {
+    CATEGORY_DEFAULT("default category multiplier"),    // The category's own multiplier
+    EMISSION_FACTOR_TABLE("emission-factor table"),     // A keyword match in the offline emission-factor table, no ChatGPT call
+    CHATGPT("ChatGPT");                                 // A ChatGPT answer for the description (possibly served from the multiplier cache)
+
+    private final String label;
+
+    CarbonFootprintSource(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
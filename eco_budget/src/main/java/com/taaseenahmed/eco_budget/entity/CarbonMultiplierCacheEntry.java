@@ -0,0 +1,32 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Persistent second-level cache of ChatGPT carbon multipliers, keyed by the normalized (category, description) prompt.
+@Entity
+@Table(name = "carbon_multiplier_cache")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CarbonMultiplierCacheEntry {
+
+    @Id
+    @Column(name = "prompt_key", length = 1000)
+    private String promptKey;
+
+    @Column(nullable = false)
+    private Double carbonMultiplier;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Per-(user, category, day) totals of the transaction table, kept up to date as deltas on every transaction write.
+// Analytic reads sum these rows instead of scanning raw transactions.
+@Entity
+@Table(name = "daily_rollup")
+@IdClass(DailyRollupId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DailyRollup {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate day;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal expenseTotal;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal incomeTotal;
+
+    @Column(nullable = false)
+    private double carbonTotal;
+
+    @Column(nullable = false)
+    private long transactionCount;
+}
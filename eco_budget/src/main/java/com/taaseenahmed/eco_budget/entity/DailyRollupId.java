@@ -0,0 +1,18 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Composite key of a daily rollup row: one row per user, category and day.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRollupId implements Serializable {
+    private Long userId;
+    private Long categoryId;
+    private LocalDate day;
+}
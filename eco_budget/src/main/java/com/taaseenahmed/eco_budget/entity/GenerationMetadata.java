@@ -0,0 +1,20 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How a stored recommendation/benchmark document was generated; null on documents migrated from the old tables.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GenerationMetadata {
+    private String model;
+    private String promptHash;
+    private long latencyMs;
+    private long dataVersion;
+}
@@ -0,0 +1,32 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Persistent cache of recommendation/benchmark completions, keyed by the SHA-256 of the canonical prompt.
+@Entity
+@Table(name = "insight_response_cache")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class InsightResponseCacheEntry {
+
+    @Id
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String completion;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
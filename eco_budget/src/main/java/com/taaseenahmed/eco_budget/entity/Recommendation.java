@@ -5,9 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -26,22 +27,35 @@ public class Recommendation {
     private AppUser appUser;
 
 
-    @ElementCollection
-    @CollectionTable(name = "recommendation_spending_recommendations", joinColumns = @JoinColumn(name = "recommendation_id"))
-    @Column(name = "spending_recommendations", length = 1000) // Increase length
-    private List<String> spendingRecommendations;
-
-    @ElementCollection
-    @CollectionTable(name = "recommendation_carbon_footprint_recommendations", joinColumns = @JoinColumn(name = "recommendation_id"))
-    @Column(name = "carbon_footprint_recommendations", length = 1000) // Increase length
-    private List<String> carbonFootprintRecommendations;
+    // Both sections and their generation metadata, read and written with the row itself
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private RecommendationDocument document;
 
     private LocalDateTime lastUpdated;
 
+    // Copies of the document's dataVersion and promptHash, as columns so the staleness query can use them
+    private Long sourceVersion; // AppUser.dataVersion these results were built from
+
+    @Column(length = 64)
+    private String sourceHash; // Hash of the prompt input, so a version bump that changes nothing material is not regenerated
+
     public Recommendation(AppUser appUser) {
         this.appUser = appUser;
-        this.spendingRecommendations = new ArrayList<>();
-        this.carbonFootprintRecommendations = new ArrayList<>();
+        this.document = new RecommendationDocument();
         this.lastUpdated = LocalDateTime.now();
     }
+
+    public List<String> getSpendingRecommendations() {
+        return document != null ? document.getSpendingRecommendations() : List.of();
+    }
+
+    public List<String> getCarbonFootprintRecommendations() {
+        return document != null ? document.getCarbonFootprintRecommendations() : List.of();
+    }
+
+    // Rows from before versioning count as current until the user's data next changes
+    public boolean isCurrentFor(long dataVersion) {
+        return sourceVersion != null ? sourceVersion >= dataVersion : dataVersion == 0;
+    }
 }
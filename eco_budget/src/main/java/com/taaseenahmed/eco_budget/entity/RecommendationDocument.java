@@ -0,0 +1,32 @@
+package com.taaseenahmed.eco_budget.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Stored as one JSONB value on the recommendation row. Bump SCHEMA_VERSION when the shape changes incompatibly.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RecommendationDocument {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    @Builder.Default
+    private int schemaVersion = SCHEMA_VERSION;
+
+    @Builder.Default
+    private List<String> spendingRecommendations = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> carbonFootprintRecommendations = new ArrayList<>();
+
+    private GenerationMetadata generation;
+}
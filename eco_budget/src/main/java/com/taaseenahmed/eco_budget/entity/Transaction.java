@@ -8,6 +8,10 @@ import java.time.LocalDateTime;
 
 // Represents a financial transaction entity.
 @Entity
+@Table(name = "transaction", indexes = {
+        // Serves the per-user keyset listing (user_id, date, id) in either direction
+        @Index(name = "idx_transaction_user_date_id", columnList = "user_id, date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +21,8 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50) // Pooled IDs allow JDBC insert batching
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,7 +42,27 @@ public class Transaction {
     private Double carbonFootprint;
 
     @Column(nullable = false)
-    private boolean isChatGPTDerivedCarbonFootprint; // Indicates if the carbon footprint was derived using ChatGPT
+    private boolean isChatGPTDerivedCarbonFootprint; // Indicates if the carbon footprint came from a ChatGPT answer; kept in step with carbonFootprintSource
+
+    @Enumerated(EnumType.STRING)
+    private CarbonFootprintSource carbonFootprintSource; // Null on rows saved before the source was recorded
 
     private Double carbonMultiplierUsed;
+
+    @Enumerated(EnumType.STRING)
+    private CarbonEnrichmentStatus carbonEnrichmentStatus; // Progress of the description-based carbon refinement
+
+    // Sets the source together with the legacy ChatGPT flag, so a table match is never reported as a ChatGPT answer
+    public void setCarbonFootprintSource(CarbonFootprintSource carbonFootprintSource) {
+        this.carbonFootprintSource = carbonFootprintSource;
+        this.isChatGPTDerivedCarbonFootprint = carbonFootprintSource == CarbonFootprintSource.CHATGPT;
+    }
+
+    // The recorded source, or the best guess from the legacy flag for older rows
+    public CarbonFootprintSource resolveCarbonFootprintSource() {
+        if (carbonFootprintSource != null) {
+            return carbonFootprintSource;
+        }
+        return isChatGPTDerivedCarbonFootprint ? CarbonFootprintSource.CHATGPT : CarbonFootprintSource.CATEGORY_DEFAULT;
+    }
 }
@@ -0,0 +1,8 @@
+package com.taaseenahmed.eco_budget.exception;
+
+// Thrown (inside a failed future) when the LLM guard refuses a call without sending it.
+public class LlmUnavailableException extends RuntimeException {
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+}
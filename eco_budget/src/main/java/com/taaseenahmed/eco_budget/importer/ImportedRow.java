@@ -0,0 +1,5 @@
+package com.taaseenahmed.eco_budget.importer;
+
+// One raw transaction row read from an uploaded bank export, before validation.
+public record ImportedRow(long rowNumber, String date, String amount, String type, String category, String description) {
+}
@@ -0,0 +1,110 @@
+package com.taaseenahmed.eco_budget.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads <STMTTRN> entries from OFX 1.x (SGML) and 2.x (XML) statements with a single-pass tag scanner.
+// OFX carries no category, so rows are returned uncategorised.
+public class OfxTransactionFileReader implements TransactionFileReader {
+
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private final Reader reader;
+    private long rowNumber;
+    private int lookahead = -2; // -2 means nothing buffered
+
+    public OfxTransactionFileReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportedRow next() throws IOException {
+        Map<String, String> fields = null;
+        String tag;
+        while ((tag = readTag()) != null) {
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+            } else if (tag.equals("/STMTTRN") && fields != null) {
+                rowNumber++;
+                return toRow(fields);
+            } else if (fields != null && !tag.startsWith("/")) {
+                fields.put(tag, readValue());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private ImportedRow toRow(Map<String, String> fields) {
+        String amount = fields.get("TRNAMT");
+        String type = null;
+        if (amount != null) {
+            type = amount.startsWith("-") ? "Expense" : "Income";
+            amount = amount.startsWith("-") ? amount.substring(1) : amount;
+        }
+        String description = fields.get("NAME") != null ? fields.get("NAME") : fields.get("MEMO");
+        return new ImportedRow(rowNumber, toIsoDate(fields.get("DTPOSTED")), amount, type, null, description);
+    }
+
+    // OFX dates look like 20240131 or 20240131120000.000[-5:EST]; keep the date and optional time
+    private String toIsoDate(String ofxDate) {
+        if (ofxDate == null || ofxDate.length() < 8) {
+            return ofxDate;
+        }
+        String date = ofxDate.substring(0, 4) + "-" + ofxDate.substring(4, 6) + "-" + ofxDate.substring(6, 8);
+        if (ofxDate.length() >= 14 && Character.isDigit(ofxDate.charAt(13))) {
+            return date + "T" + ofxDate.substring(8, 10) + ":" + ofxDate.substring(10, 12) + ":" + ofxDate.substring(12, 14);
+        }
+        return date;
+    }
+
+    // Advance to the next tag and return its upper-cased name, or null at end of input
+    private String readTag() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            // Skip text between tags that is not an element value
+        }
+        if (c == -1) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder();
+        while ((c = read()) != -1 && c != '>') {
+            if (tag.length() < MAX_TOKEN_LENGTH) {
+                tag.append((char) c);
+            }
+        }
+        return tag.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    // Read an element value up to the next tag, which is left unread
+    private String readValue() throws IOException {
+        StringBuilder value = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '<') {
+            if (value.length() < MAX_TOKEN_LENGTH) {
+                value.append((char) c);
+            }
+        }
+        if (c == '<') {
+            lookahead = c;
+        }
+        String trimmed = value.toString().trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private int read() throws IOException {
+        if (lookahead != -2) {
+            int c = lookahead;
+            lookahead = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
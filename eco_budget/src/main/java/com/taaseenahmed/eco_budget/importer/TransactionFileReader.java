@@ -0,0 +1,11 @@
+package com.taaseenahmed.eco_budget.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Incremental reader over an uploaded bank export; only the current row is held in memory.
+public interface TransactionFileReader extends Closeable {
+
+    // Returns the next row, or null once the input is exhausted
+    ImportedRow next() throws IOException;
+}
@@ -1,7 +1,15 @@
 package com.taaseenahmed.eco_budget.repository;
 
 import com.taaseenahmed.eco_budget.entity.AppUser;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 // Repository interface for AppUser entities to handle database operations.
@@ -11,4 +19,32 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     // Custom query method to find a user by their email.
     // Returns an Optional to handle cases where the user might not exist.
     Optional<AppUser> findByEmail(String email);
+
+    // IDs of every user, for background jobs that walk all users without loading them.
+    @Query("SELECT u.id FROM AppUser u ORDER BY u.id")
+    List<Long> findAllIds();
+
+    // Atomic version bump, so concurrent transaction writes never lose an update and a cached (detached) user is never merged back.
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppUser u SET u.dataVersion = u.dataVersion + 1, u.transactionsUpdatedAt = :updatedAt WHERE u.id = :id")
+    int bumpDataVersion(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Ask for a first generation without touching the debounce timestamp
+    @Modifying
+    @Transactional
+    @Query("UPDATE AppUser u SET u.dataVersion = u.dataVersion + 1 WHERE u.id = :id")
+    int requestInsightsRefresh(@Param("id") Long id);
+
+    // Fresh version read that bypasses the user cache.
+    @Query("SELECT u.dataVersion FROM AppUser u WHERE u.id = :id")
+    long findDataVersion(@Param("id") Long id);
+
+    // Users whose recommendations or benchmarks were built from an older version (or are missing), and whose transactions
+    // have been quiet since the given time, oldest first.
+    @Query("SELECT u.id FROM AppUser u WHERE u.dataVersion > 0 "
+            + "AND (NOT EXISTS (SELECT r.id FROM Recommendation r WHERE r.appUser = u AND r.sourceVersion >= u.dataVersion) "
+            + "OR NOT EXISTS (SELECT b.id FROM Benchmark b WHERE b.appUser = u AND b.sourceVersion >= u.dataVersion)) "
+            + "AND (u.transactionsUpdatedAt IS NULL OR u.transactionsUpdatedAt <= :quietSince) ORDER BY u.transactionsUpdatedAt NULLS FIRST, u.id")
+    List<Long> findIdsWithStaleInsights(@Param("quietSince") LocalDateTime quietSince, Pageable pageable);
 }
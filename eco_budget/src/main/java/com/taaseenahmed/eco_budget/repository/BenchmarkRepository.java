@@ -2,11 +2,21 @@ package com.taaseenahmed.eco_budget.repository;
 
 import com.taaseenahmed.eco_budget.entity.Benchmark;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface BenchmarkRepository extends JpaRepository<Benchmark, Long> {
     Optional<Benchmark> findByAppUserEmail(String email);
+
+    // Record that the stored results are still current for a newer data version, without touching the stored tips
+    @Modifying
+    @Transactional
+    @Query("UPDATE Benchmark b SET b.sourceVersion = :version WHERE b.id = :id")
+    int updateSourceVersion(@Param("id") Long id, @Param("version") long version);
 }
@@ -3,11 +3,25 @@ package com.taaseenahmed.eco_budget.repository;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Budget;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
     List<Budget> findByAppUser(AppUser appUser);
+
+    // Budgets with their category loaded in the same query
+    @Query("SELECT b FROM Budget b JOIN FETCH b.category WHERE b.appUser = :appUser")
+    List<Budget> findByAppUserWithCategory(@Param("appUser") AppUser appUser);
+
+    // Total spent per budget in one grouped query over the daily rollup, counting only the owner's days in its category and date range
+    @Query("SELECT b.id AS id, COALESCE(SUM(r.expenseTotal + r.incomeTotal), 0) AS total FROM Budget b "
+            + "LEFT JOIN DailyRollup r ON r.userId = b.appUser.id AND r.categoryId = b.category.id "
+            + "AND r.day BETWEEN cast(b.startDate as LocalDate) AND cast(b.endDate as LocalDate) "
+            + "WHERE b.id IN :budgetIds GROUP BY b.id")
+    List<ProgressTotal> sumSpentByBudgetIds(@Param("budgetIds") Collection<Long> budgetIds);
 }
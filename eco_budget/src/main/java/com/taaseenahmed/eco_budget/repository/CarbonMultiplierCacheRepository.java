@@ -0,0 +1,9 @@
+package com.taaseenahmed.eco_budget.repository;
+
+import com.taaseenahmed.eco_budget.entity.CarbonMultiplierCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CarbonMultiplierCacheRepository extends JpaRepository<CarbonMultiplierCacheEntry, String> {
+}
@@ -2,11 +2,23 @@ package com.taaseenahmed.eco_budget.repository;
 
 import com.taaseenahmed.eco_budget.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByUserIdOrUserIsNull(Long userId); // Fetch predefined and user-specific categories
+
+    List<Category> findByUserIsNull(); // Fetch predefined categories only
+
+    // Replace a seeded multiplier only if nobody has changed it since it was read
+    @Modifying
+    @Transactional
+    @Query("UPDATE Category c SET c.carbonMultiplier = :refined WHERE c.id = :id AND c.carbonMultiplier = :expected")
+    int refineCarbonMultiplier(@Param("id") Long id, @Param("expected") Double expected, @Param("refined") Double refined);
 }
@@ -0,0 +1,8 @@
+package com.taaseenahmed.eco_budget.repository;
+
+// Rollup totals grouped by category.
+public interface CategoryRollupTotals extends RollupTotals {
+    Long getCategoryId();
+
+    String getCategoryName();
+}
@@ -0,0 +1,82 @@
+package com.taaseenahmed.eco_budget.repository;
+
+import com.taaseenahmed.eco_budget.entity.DailyRollup;
+import com.taaseenahmed.eco_budget.entity.DailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollupId> {
+
+    List<DailyRollup> findByUserId(Long userId);
+
+    // Totals for a user's date range
+    @Query("SELECT COALESCE(SUM(r.expenseTotal), 0) AS expense, COALESCE(SUM(r.incomeTotal), 0) AS income, "
+            + "COALESCE(SUM(r.carbonTotal), 0) AS carbon, COALESCE(SUM(r.transactionCount), 0) AS count "
+            + "FROM DailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to")
+    RollupTotals sumForUser(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Totals per category for a user's date range, largest spend first
+    @Query("SELECT r.categoryId AS categoryId, c.name AS categoryName, SUM(r.expenseTotal) AS expense, SUM(r.incomeTotal) AS income, "
+            + "SUM(r.carbonTotal) AS carbon, SUM(r.transactionCount) AS count "
+            + "FROM DailyRollup r, Category c WHERE c.id = r.categoryId AND r.userId = :userId AND r.day BETWEEN :from AND :to "
+            + "GROUP BY r.categoryId, c.name HAVING SUM(r.transactionCount) > 0 "
+            + "ORDER BY SUM(r.expenseTotal) DESC, r.categoryId")
+    List<CategoryRollupTotals> sumByCategory(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Totals per day for a user's date range, optionally for one category only
+    @Query("SELECT r.day AS day, SUM(r.expenseTotal) AS expense, SUM(r.incomeTotal) AS income, "
+            + "SUM(r.carbonTotal) AS carbon, SUM(r.transactionCount) AS count "
+            + "FROM DailyRollup r WHERE r.userId = :userId AND r.day BETWEEN :from AND :to "
+            + "AND (:categoryId IS NULL OR r.categoryId = :categoryId) "
+            + "GROUP BY r.day ORDER BY r.day")
+    List<DayRollupTotals> sumByDay(@Param("userId") Long userId, @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to, @Param("categoryId") Long categoryId);
+
+    // Atomically add a delta to a rollup row, creating it on first use
+    @Modifying
+    @Query(value = "INSERT INTO daily_rollup (user_id, category_id, rollup_date, expense_total, income_total, carbon_total, transaction_count) "
+            + "VALUES (:userId, :categoryId, :day, :expense, :income, :carbon, :count) "
+            + "ON CONFLICT (user_id, category_id, rollup_date) DO UPDATE SET "
+            + "expense_total = daily_rollup.expense_total + EXCLUDED.expense_total, "
+            + "income_total = daily_rollup.income_total + EXCLUDED.income_total, "
+            + "carbon_total = daily_rollup.carbon_total + EXCLUDED.carbon_total, "
+            + "transaction_count = daily_rollup.transaction_count + EXCLUDED.transaction_count",
+            nativeQuery = true)
+    void applyDelta(@Param("userId") Long userId, @Param("categoryId") Long categoryId, @Param("day") LocalDate day,
+                    @Param("expense") BigDecimal expense, @Param("income") BigDecimal income,
+                    @Param("carbon") double carbon, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM DailyRollup r WHERE r.userId = :userId")
+    int deleteByUserIdInBulk(@Param("userId") Long userId);
+
+    // Recompute a user's rollup rows from the raw transactions
+    @Modifying
+    @Query(value = "INSERT INTO daily_rollup (user_id, category_id, rollup_date, expense_total, income_total, carbon_total, transaction_count) "
+            + "SELECT t.user_id, t.category_id, CAST(t.date AS DATE), "
+            + "COALESCE(SUM(CASE WHEN LOWER(t.type) = 'income' THEN 0 ELSE t.amount END), 0), "
+            + "COALESCE(SUM(CASE WHEN LOWER(t.type) = 'income' THEN t.amount ELSE 0 END), 0), "
+            + "COALESCE(SUM(t.carbon_footprint), 0), COUNT(*) "
+            + "FROM transaction t WHERE t.user_id = :userId "
+            + "GROUP BY t.user_id, t.category_id, CAST(t.date AS DATE)",
+            nativeQuery = true)
+    int insertFromTransactions(@Param("userId") Long userId);
+
+    // Fresh per-day totals straight from the transaction table, for drift checks: category, day, expense, income, carbon, count
+    @Query(value = "SELECT t.category_id, CAST(t.date AS DATE), "
+            + "COALESCE(SUM(CASE WHEN LOWER(t.type) = 'income' THEN 0 ELSE t.amount END), 0), "
+            + "COALESCE(SUM(CASE WHEN LOWER(t.type) = 'income' THEN t.amount ELSE 0 END), 0), "
+            + "COALESCE(SUM(t.carbon_footprint), 0), COUNT(*) "
+            + "FROM transaction t WHERE t.user_id = :userId "
+            + "GROUP BY t.category_id, CAST(t.date AS DATE)",
+            nativeQuery = true)
+    List<Object[]> aggregateTransactionsByDay(@Param("userId") Long userId);
+}
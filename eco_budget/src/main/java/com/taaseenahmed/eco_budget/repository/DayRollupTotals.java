@@ -0,0 +1,8 @@
+package com.taaseenahmed.eco_budget.repository;
+
+import java.time.LocalDate;
+
+// Rollup totals grouped by day.
+public interface DayRollupTotals extends RollupTotals {
+    LocalDate getDay();
+}
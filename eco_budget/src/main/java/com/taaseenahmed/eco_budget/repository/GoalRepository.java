@@ -3,11 +3,25 @@ package com.taaseenahmed.eco_budget.repository;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Goal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GoalRepository extends JpaRepository<Goal, Long> {
     List<Goal> findByAppUser(AppUser appUser);
+
+    // Goals with their category loaded in the same query
+    @Query("SELECT g FROM Goal g JOIN FETCH g.category WHERE g.appUser = :appUser")
+    List<Goal> findByAppUserWithCategory(@Param("appUser") AppUser appUser);
+
+    // Total carbon footprint per goal in one grouped query over the daily rollup, counting only the owner's days in its category and date range
+    @Query("SELECT g.id AS id, COALESCE(SUM(r.carbonTotal), 0) AS total FROM Goal g "
+            + "LEFT JOIN DailyRollup r ON r.userId = g.appUser.id AND r.categoryId = g.category.id "
+            + "AND r.day BETWEEN cast(g.startDate as LocalDate) AND cast(g.endDate as LocalDate) "
+            + "WHERE g.id IN :goalIds GROUP BY g.id")
+    List<ProgressTotal> sumCarbonFootprintByGoalIds(@Param("goalIds") Collection<Long> goalIds);
 }
@@ -0,0 +1,20 @@
+package com.taaseenahmed.eco_budget.repository;
+
+import com.taaseenahmed.eco_budget.entity.InsightResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InsightResponseCacheRepository extends JpaRepository<InsightResponseCacheEntry, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InsightResponseCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
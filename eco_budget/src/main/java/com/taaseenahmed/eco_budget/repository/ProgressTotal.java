@@ -0,0 +1,8 @@
+package com.taaseenahmed.eco_budget.repository;
+
+// Projection of a grouped aggregate: the budget or goal ID and its summed progress value.
+public interface ProgressTotal {
+    Long getId();
+
+    Number getTotal();
+}
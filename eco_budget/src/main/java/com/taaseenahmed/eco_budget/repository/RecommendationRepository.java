@@ -1,11 +1,21 @@
 package com.taaseenahmed.eco_budget.repository;
 import com.taaseenahmed.eco_budget.entity.Recommendation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
     Optional<Recommendation> findByAppUserEmail(String email);
+
+    // Record that the stored results are still current for a newer data version, without touching the stored tips
+    @Modifying
+    @Transactional
+    @Query("UPDATE Recommendation r SET r.sourceVersion = :version WHERE r.id = :id")
+    int updateSourceVersion(@Param("id") Long id, @Param("version") long version);
 }
@@ -0,0 +1,12 @@
+package com.taaseenahmed.eco_budget.repository;
+
+// Projection of summed daily rollup rows.
+public interface RollupTotals {
+    Number getExpense();
+
+    Number getIncome();
+
+    Number getCarbon();
+
+    Number getCount();
+}
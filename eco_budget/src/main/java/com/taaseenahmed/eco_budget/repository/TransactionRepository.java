@@ -1,18 +1,59 @@
 package com.taaseenahmed.eco_budget.repository;
 
+import com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus;
 import com.taaseenahmed.eco_budget.entity.Transaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 // Repository interface for performing CRUD operations on Transaction entities.
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
 
-    // Custom query to find transactions by a user's ID.
+    // Every user's transactions, with users and categories fetched in the same statement.
+    @Override
+    @EntityGraph(attributePaths = {"appUser", "category"})
+    List<Transaction> findAll();
+
+    // Custom query to find transactions by a user's ID, with the user and category fetched in the same statement.
+    @EntityGraph(attributePaths = {"appUser", "category"})
     List<Transaction> findByAppUserId(Long appUser_id);
     List<Transaction> findByCategoryIdAndDateBetween(Long categoryId, LocalDateTime startDate, LocalDateTime endDate);
     List<Transaction> findByAppUserIdAndDateAfter(Long appUserId, LocalDateTime date);
+
+    // IDs of transactions waiting for background carbon enrichment, oldest first.
+    @Query("SELECT t.id FROM Transaction t WHERE t.carbonEnrichmentStatus = :status ORDER BY t.id")
+    List<Long> findIdsByCarbonEnrichmentStatus(@Param("status") CarbonEnrichmentStatus status, Pageable pageable);
+
+    // Applies an enrichment result, guarded so an edit made while the description was being scored is not overwritten.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.carbonFootprint = :carbonFootprint, t.carbonMultiplierUsed = :multiplier, "
+            + "t.isChatGPTDerivedCarbonFootprint = true, "
+            + "t.carbonFootprintSource = com.taaseenahmed.eco_budget.entity.CarbonFootprintSource.CHATGPT, "
+            + "t.carbonEnrichmentStatus = com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus.COMPLETED "
+            + "WHERE t.id = :id AND t.description = :description AND t.amount = :amount "
+            + "AND t.category.id = :categoryId AND t.date = :date "
+            + "AND t.carbonEnrichmentStatus = com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus.PENDING")
+    int completeCarbonEnrichment(@Param("id") Long id, @Param("description") String description,
+                                 @Param("amount") BigDecimal amount, @Param("categoryId") Long categoryId,
+                                 @Param("date") LocalDateTime date, @Param("carbonFootprint") Double carbonFootprint,
+                                 @Param("multiplier") Double multiplier);
+
+    // Keeps the category multiplier once enrichment has given up.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Transaction t SET t.carbonEnrichmentStatus = com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus.FAILED "
+            + "WHERE t.id = :id AND t.carbonEnrichmentStatus = com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus.PENDING")
+    int markCarbonEnrichmentFailed(@Param("id") Long id);
 }
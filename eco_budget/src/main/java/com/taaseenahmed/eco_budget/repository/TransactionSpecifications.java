@@ -0,0 +1,47 @@
+package com.taaseenahmed.eco_budget.repository;
+
+import com.taaseenahmed.eco_budget.dto.request.TransactionFilterRequest;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Reusable JPA criteria for filtering a user's transactions in the database rather than on the client.
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> forUser(Long appUserId, TransactionFilterRequest filter) {
+        return (root, query, cb) -> {
+            if (Transaction.class.equals(query.getResultType())) {
+                // Listings map each row's user and category, so fetch them with the rows rather than one query per row
+                root.fetch("appUser");
+                root.fetch("category");
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("appUser").get("id"), appUserId));
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), filter.getTo()));
+            }
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            }
+            if (filter.getType() != null && !filter.getType().isBlank()) {
+                predicates.add(cb.equal(root.get("type"), filter.getType()));
+            }
+            if (filter.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("amount"), filter.getMinAmount()));
+            }
+            if (filter.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("amount"), filter.getMaxAmount()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
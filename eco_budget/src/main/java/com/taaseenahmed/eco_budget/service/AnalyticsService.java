@@ -0,0 +1,190 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.AnalyticsSummaryDTO;
+import com.taaseenahmed.eco_budget.dto.response.CategoryBreakdownDTO;
+import com.taaseenahmed.eco_budget.dto.response.TimeSeriesDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.repository.CategoryRollupTotals;
+import com.taaseenahmed.eco_budget.repository.DailyRollupRepository;
+import com.taaseenahmed.eco_budget.repository.DayRollupTotals;
+import com.taaseenahmed.eco_budget.repository.RollupTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Dashboard figures computed from the daily rollup, so a request reads at most one row per category per day
+// instead of the user's full transaction history.
+@Service
+@RequiredArgsConstructor
+public class AnalyticsService {
+
+    private static final int MAX_POINTS = 1000;
+    // Time series fill every bucket of the range before downsampling, so the span has to be bounded
+    private static final int MAX_RANGE_YEARS = 50;
+
+    private final DailyRollupRepository dailyRollupRepository;
+
+    // Totals for the period, defaulting to the current month so far
+    public AnalyticsSummaryDTO getSummary(AppUser user, LocalDate from, LocalDate to) {
+        LocalDate start = resolveFrom(from, to);
+        LocalDate end = resolveTo(to);
+        validateRange(start, end);
+
+        RollupTotals totals = dailyRollupRepository.sumForUser(user.getId(), start, end);
+        BigDecimal expense = toBigDecimal(totals.getExpense());
+        BigDecimal income = toBigDecimal(totals.getIncome());
+        long days = ChronoUnit.DAYS.between(start, end) + 1;
+
+        return AnalyticsSummaryDTO.builder()
+                .from(start)
+                .to(end)
+                .totalExpense(expense)
+                .totalIncome(income)
+                .net(income.subtract(expense))
+                .totalCarbonFootprint(totals.getCarbon().doubleValue())
+                .transactionCount(totals.getCount().longValue())
+                .averageDailyExpense(expense.divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    // Per-category totals and shares for the period, largest spend first
+    public List<CategoryBreakdownDTO> getCategoryBreakdown(AppUser user, LocalDate from, LocalDate to) {
+        LocalDate start = resolveFrom(from, to);
+        LocalDate end = resolveTo(to);
+        validateRange(start, end);
+
+        List<CategoryRollupTotals> rows = dailyRollupRepository.sumByCategory(user.getId(), start, end);
+        BigDecimal totalExpense = rows.stream().map(row -> toBigDecimal(row.getExpense())).reduce(BigDecimal.ZERO, BigDecimal::add);
+        double totalCarbon = rows.stream().mapToDouble(row -> row.getCarbon().doubleValue()).sum();
+
+        return rows.stream()
+                .map(row -> {
+                    BigDecimal expense = toBigDecimal(row.getExpense());
+                    double carbon = row.getCarbon().doubleValue();
+                    return CategoryBreakdownDTO.builder()
+                            .categoryId(row.getCategoryId())
+                            .categoryName(row.getCategoryName())
+                            .expense(expense)
+                            .income(toBigDecimal(row.getIncome()))
+                            .carbonFootprint(carbon)
+                            .transactionCount(row.getCount().longValue())
+                            .expenseShare(totalExpense.signum() == 0 ? 0.0 : expense.doubleValue() * 100 / totalExpense.doubleValue())
+                            .carbonShare(totalCarbon == 0.0 ? 0.0 : carbon * 100 / totalCarbon)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Totals per day, week (starting Monday) or month, merging neighbouring buckets when there are more than maxPoints
+    public TimeSeriesDTO getTimeSeries(AppUser user, LocalDate from, LocalDate to, String granularity,
+                                       Integer maxPoints, Long categoryId) {
+        String unit = granularity == null ? "day" : granularity.toLowerCase(Locale.ROOT);
+        if (!unit.equals("day") && !unit.equals("week") && !unit.equals("month")) {
+            throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+        if (maxPoints != null && maxPoints < 1) {
+            throw new IllegalArgumentException("points must be at least 1");
+        }
+        LocalDate start = resolveFrom(from, to);
+        LocalDate end = resolveTo(to);
+        validateRange(start, end);
+
+        // Every bucket in the range, so gaps show up as zeros rather than missing points
+        Map<LocalDate, TimeSeriesDTO.Point> buckets = new LinkedHashMap<>();
+        for (LocalDate bucket = bucketStart(start, unit); !bucket.isAfter(end); bucket = nextBucket(bucket, unit)) {
+            buckets.put(bucket, new TimeSeriesDTO.Point(bucket, BigDecimal.ZERO, BigDecimal.ZERO, 0.0, 0));
+        }
+        for (DayRollupTotals day : dailyRollupRepository.sumByDay(user.getId(), start, end, categoryId)) {
+            addTo(buckets.get(bucketStart(day.getDay(), unit)), toBigDecimal(day.getExpense()),
+                    toBigDecimal(day.getIncome()), day.getCarbon().doubleValue(), day.getCount().longValue());
+        }
+
+        // Downsample by summing runs of consecutive buckets, which keeps the series totals intact
+        List<TimeSeriesDTO.Point> points = new ArrayList<>(buckets.values());
+        int target = Math.min(maxPoints != null ? maxPoints : MAX_POINTS, MAX_POINTS);
+        int bucketSize = 1;
+        if (points.size() > target) {
+            bucketSize = (points.size() + target - 1) / target;
+            List<TimeSeriesDTO.Point> merged = new ArrayList<>();
+            for (int i = 0; i < points.size(); i += bucketSize) {
+                TimeSeriesDTO.Point first = points.get(i);
+                TimeSeriesDTO.Point point = new TimeSeriesDTO.Point(first.getPeriodStart(), BigDecimal.ZERO, BigDecimal.ZERO, 0.0, 0);
+                for (TimeSeriesDTO.Point part : points.subList(i, Math.min(i + bucketSize, points.size()))) {
+                    addTo(point, part.getExpense(), part.getIncome(), part.getCarbonFootprint(), part.getTransactionCount());
+                }
+                merged.add(point);
+            }
+            points = merged;
+        }
+
+        return TimeSeriesDTO.builder()
+                .granularity(unit)
+                .bucketSize(bucketSize)
+                .from(start)
+                .to(end)
+                .points(points)
+                .build();
+    }
+
+    private static void addTo(TimeSeriesDTO.Point point, BigDecimal expense, BigDecimal income, double carbon, long count) {
+        point.setExpense(point.getExpense().add(expense));
+        point.setIncome(point.getIncome().add(income));
+        point.setCarbonFootprint(point.getCarbonFootprint() + carbon);
+        point.setTransactionCount(point.getTransactionCount() + count);
+    }
+
+    private static LocalDate bucketStart(LocalDate day, String unit) {
+        return switch (unit) {
+            case "week" -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> day.withDayOfMonth(1);
+            default -> day;
+        };
+    }
+
+    private static LocalDate nextBucket(LocalDate bucket, String unit) {
+        return switch (unit) {
+            case "week" -> bucket.plusWeeks(1);
+            case "month" -> bucket.plusMonths(1);
+            default -> bucket.plusDays(1);
+        };
+    }
+
+    private static LocalDate resolveFrom(LocalDate from, LocalDate to) {
+        if (from != null) {
+            return from;
+        }
+        return (to != null ? to : LocalDate.now()).withDayOfMonth(1);
+    }
+
+    private static LocalDate resolveTo(LocalDate to) {
+        return to != null ? to : LocalDate.now();
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusYears(MAX_RANGE_YEARS).isBefore(to)) {
+            throw new IllegalArgumentException("Range must not span more than " + MAX_RANGE_YEARS + " years");
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Number value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
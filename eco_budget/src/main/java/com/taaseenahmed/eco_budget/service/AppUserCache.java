@@ -0,0 +1,69 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.CacheStatsDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.repository.AppUserRepository;
+import com.taaseenahmed.eco_budget.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Small read-through cache of users by email, so authenticating a request usually needs no user query.
+// Cached users are detached and shared between requests: read them, but write user columns with targeted updates.
+@Service
+public class AppUserCache {
+
+    private final AppUserRepository appUserRepository;
+    private final ExpiringLruCache<String, AppUser> users;
+
+    public AppUserCache(AppUserRepository appUserRepository,
+                        @Value("${user-cache.max-size:1000}") int maxSize,
+                        @Value("${user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.appUserRepository = appUserRepository;
+        this.users = new ExpiringLruCache<>(maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds));
+    }
+
+    public Optional<AppUser> findByEmail(String email) {
+        AppUser cached = users.get(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<AppUser> user = appUserRepository.findByEmail(email);
+        user.ifPresent(found -> users.put(email, found));
+        return user;
+    }
+
+    // Drop a user after a write; repeated after commit so a concurrent read cannot re-cache the old row
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        return CacheStatsDTO.builder()
+                .name("users")
+                .size(users.size())
+                .maxSize(users.getMaxSize())
+                .hits(users.getHits())
+                .misses(users.getMisses())
+                .evictions(users.getEvictions())
+                .expirations(users.getExpirations())
+                .build();
+    }
+
+    private void evict(Long userId) {
+        users.invalidateMatching(user -> Objects.equals(user.getId(), userId));
+    }
+}
@@ -37,13 +37,12 @@ public class AuthenticationService {
 
     // Authenticates a user by validating credentials and issuing a JWT.
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(
+        var authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(), request.getPassword()
                 )
         ); // Verifies the user's credentials.
-        var user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(); // Finds the user or throws an exception if not found.
+        var user = (AppUser) authentication.getPrincipal(); // The user loaded while checking the credentials.
         var jwtToken = jwtService.generateToken(user); // Generate a JWT for the authenticated user.
         return AuthenticationResponse.builder().token(jwtToken).build();
     }
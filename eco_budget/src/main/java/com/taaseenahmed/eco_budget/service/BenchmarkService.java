@@ -3,19 +3,26 @@ package com.taaseenahmed.eco_budget.service;
 import com.taaseenahmed.eco_budget.dto.response.BenchmarkDTO;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Benchmark;
+import com.taaseenahmed.eco_budget.entity.BenchmarkDocument;
+import com.taaseenahmed.eco_budget.entity.GenerationMetadata;
 import com.taaseenahmed.eco_budget.repository.AppUserRepository;
 import com.taaseenahmed.eco_budget.entity.Transaction;
 import com.taaseenahmed.eco_budget.repository.BenchmarkRepository;
 import com.taaseenahmed.eco_budget.repository.TransactionRepository;
+import com.taaseenahmed.eco_budget.util.NumberedTips;
+import com.taaseenahmed.eco_budget.util.PromptProfile;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Service
 @AllArgsConstructor
 public class BenchmarkService {
@@ -24,83 +31,120 @@ public class BenchmarkService {
     private final TransactionRepository transactionRepository;
     private final BenchmarkRepository benchmarkRepository;
     private final AppUserRepository appUserRepository;
+    private final InsightResponseCache insightResponseCache;
+
+    // Served from the stored row only; regeneration happens in the background (see InsightPrecomputeService)
+    public BenchmarkDTO createBenchmarkResponse(AppUser appUser) {
+        Benchmark benchmark = benchmarkRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
+
+        // A user with nothing stored and no changes yet gets a version bump, so the next background scan generates a first set
+        long dataVersion = appUserRepository.findDataVersion(appUser.getId());
+        boolean pending = benchmark == null || !benchmark.isCurrentFor(dataVersion);
+        if (benchmark == null && dataVersion == 0) {
+            appUserRepository.requestInsightsRefresh(appUser.getId());
+        }
 
-    public BenchmarkDTO createBenchmarkResponse(String email) {
-        Benchmark benchmark = getBenchmarksForUser(email);
         return BenchmarkDTO.builder()
-                .benchmarks(benchmark.getBenchmarks())
+                .benchmarks(benchmark != null ? benchmark.getBenchmarks() : List.of())
+                .lastUpdated(benchmark != null ? benchmark.getLastUpdated() : null)
+                .refreshPending(pending)
                 .build();
     }
 
-    public Benchmark getBenchmarksForUser(String email) {
-        AppUser appUser = appUserRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    // Regenerate the benchmarks from the last month of transactions; called by the background precomputation
+    public Benchmark refreshBenchmarks(AppUser appUser) {
+        Benchmark stored = benchmarkRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
+        long dataVersion = appUserRepository.findDataVersion(appUser.getId());
+        if (stored != null && stored.isCurrentFor(dataVersion)) {
+            return stored; // Only the recommendations were stale
+        }
+        Prompt prompt = createPrompt(appUser, dataVersion);
+        if (confirmUnchanged(stored, prompt)) {
+            return stored;
+        }
 
+        log.info("Fetching new benchmarks for user: {}", appUser.getEmail());
+        // A prompt identical to an earlier one (same canonical profile) reuses that completion instead of calling ChatGPT
+        long started = System.nanoTime();
+        String completion = insightResponseCache.getOrGenerate(prompt.text(), text -> chatGPTService.getCompletionAsync(LlmPurpose.BENCHMARK, text)).join();
+        return saveRefresh(appUser, prompt, completion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // The benchmark prompt, built from the user's last month of transactions
+    public Prompt createPrompt(AppUser appUser) {
+        return createPrompt(appUser, appUserRepository.findDataVersion(appUser.getId()));
+    }
+
+    // The version is read before the transactions, so a write landing in between leaves the result stale rather than lost
+    private Prompt createPrompt(AppUser appUser, long dataVersion) {
         LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
         List<Transaction> transactions = transactionRepository.findByAppUserIdAndDateAfter(appUser.getId(), oneMonthAgo);
+        return new Prompt(createBenchmarkPrompt(transactions), dataVersion);
+    }
 
-        Benchmark benchmark = benchmarkRepository.findByAppUserEmail(email).orElse(null);
+    // When the canonical prompt matches the one the stored row was built from, the version bump was not a material change:
+    // the row is stamped current and nothing is regenerated
+    public boolean confirmUnchanged(AppUser appUser, Prompt prompt) {
+        return confirmUnchanged(benchmarkRepository.findByAppUserEmail(appUser.getEmail()).orElse(null), prompt);
+    }
 
-        boolean shouldRefreshBenchmarks = benchmark == null || appUser.isTransactionsUpdatedForBenchmarks();
+    private boolean confirmUnchanged(Benchmark stored, Prompt prompt) {
+        if (stored == null || !prompt.hash().equals(stored.getSourceHash())) {
+            return false;
+        }
+        benchmarkRepository.updateSourceVersion(stored.getId(), prompt.dataVersion());
+        log.info("Benchmarks for user {} unchanged at data version {}", stored.getAppUser().getId(), prompt.dataVersion());
+        return true;
+    }
 
-        if (!shouldRefreshBenchmarks) {
-            System.out.println("Using existing benchmarks for user: " + email);
+    // Store the completion of a refresh; null means the prompt failed
+    public Benchmark saveRefresh(AppUser appUser, Prompt prompt, String benchmarkRecommendation, long latencyMillis) {
+        Benchmark benchmark = benchmarkRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
+        if (benchmarkRecommendation == null) {
+            // Keep the previous benchmarks (or none yet) and the old version, so the next scan retries
             return benchmark;
         }
 
-        System.out.println("Fetching new benchmarks for user: " + email);
-
-        String benchmarkPrompt = createBenchmarkPrompt(transactions);
-
-        String benchmarkRecommendation = chatGPTService.getRecommendation(benchmarkPrompt);
-
         if (benchmark == null) {
             benchmark = new Benchmark(appUser);
-        } else {
-            benchmark.getBenchmarks().clear();
         }
 
-        benchmark.setBenchmarks(parseBenchmarks(benchmarkRecommendation));
+        // One JSONB document, so the row is written with a single UPDATE
+        benchmark.setDocument(BenchmarkDocument.builder()
+                .benchmarks(NumberedTips.parse(benchmarkRecommendation))
+                .generation(GenerationMetadata.builder()
+                        .model(chatGPTService.getModel())
+                        .promptHash(prompt.hash())
+                        .latencyMs(latencyMillis)
+                        .dataVersion(prompt.dataVersion())
+                        .build())
+                .build());
         benchmark.setLastUpdated(LocalDateTime.now());
 
-        // Reset the transactionsUpdatedForBenchmarks flag
-        appUser.setTransactionsUpdatedForBenchmarks(false);
-        appUserRepository.save(appUser);
+        benchmark.setSourceVersion(prompt.dataVersion());
+        benchmark.setSourceHash(prompt.hash());
 
         return benchmarkRepository.save(benchmark);
     }
 
-    private List<String> parseBenchmarks(String benchmarkText) {
-        List<String> benchmarks = new ArrayList<>();
-
-        // Use regex to capture numbered benchmarks, handling potential formatting issues
-        String[] tips = benchmarkText.split("(?m)^\\d+\\.\\s");
-
-        for (String tip : tips) {
-            String trimmedTip = tip.trim();
-            if (!trimmedTip.isEmpty() && trimmedTip.length() >= 5) {
-                // Remove any leading or trailing special characters
-                trimmedTip = trimmedTip.replaceAll("^\\*+|\\*+$", "").trim();
-                // Remove '**' that comes after the title
-                trimmedTip = trimmedTip.replaceAll("\\*\\*$", "").replaceAll("\\*\\*:", ":").trim();
-                // Exclude the introductory sentence
-                if (!trimmedTip.startsWith("Based on your transaction data")) {
-                    benchmarks.add(trimmedTip);
-                }
-            }
-        }
+    // The data version the prompt was built from travels with it to the stored row
+    public record Prompt(String text, long dataVersion) {
 
-        return benchmarks;
+        public String hash() {
+            return PromptProfile.hash(text);
+        }
     }
 
-    private String createBenchmarkPrompt(List<Transaction> transactions) {
-        Map<String, Double> categorySpending = new HashMap<>();
-        Map<String, Double> categoryCarbonFootprint = new HashMap<>();
+    // Package-private and static so the JMH benchmarks can call it without a Spring context
+    static String createBenchmarkPrompt(List<Transaction> transactions) {
+        // Sorted by category, and totals are quantized, so similar profiles produce the same prompt (and cache key)
+        Map<String, Double> categorySpending = new TreeMap<>();
+        Map<String, Double> categoryCarbonFootprint = new TreeMap<>();
 
         for (Transaction transaction : transactions) {
             String category = transaction.getCategory().getName();
             double amount = transaction.getAmount().doubleValue();
-            double carbonFootprint = transaction.getCarbonFootprint().doubleValue();
+            double carbonFootprint = transaction.getCarbonFootprint() != null ? transaction.getCarbonFootprint() : 0.0;
 
             categorySpending.merge(category, amount, Double::sum);
             categoryCarbonFootprint.merge(category, carbonFootprint, Double::sum);
@@ -110,20 +154,17 @@ public class BenchmarkService {
                 + "Each benchmark should be concise and start with a number followed by a period. "
                 + "Here are the spending and carbon footprint details:\n");
 
-        prompt.append("[");
+        List<String> lines = new ArrayList<>();
         categorySpending.forEach((category, amount) -> {
             double carbonFootprint = categoryCarbonFootprint.getOrDefault(category, 0.0);
             if (amount > 0 || carbonFootprint > 0) {
-                prompt.append(String.format("{\"category\":\"%s\", \"amount\":%.2f, \"carbonFootprint\":%.2f}, ", category, amount, carbonFootprint));
+                lines.add(String.format("{\"category\":%s, \"amount\":%s, \"carbonFootprint\":%s}",
+                        PromptProfile.quote(category), PromptProfile.format(amount), PromptProfile.format(carbonFootprint)));
             }
         });
 
-        if (prompt.charAt(prompt.length() - 2) == ',') {
-            prompt.delete(prompt.length() - 2, prompt.length()); // Remove trailing comma
-        }
-
-        prompt.append("]");
+        prompt.append("[").append(String.join(", ", lines)).append("]");
         prompt.append("\nPlease provide meaningful benchmarks/comparisons based on the spending patterns and comparisons for carbon footprint, such as \"This is equivalent to driving X miles\" or \"X% below/above the national average\". Give a response in the context of the UK and Europe.");
         return prompt.toString();
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,14 @@ package com.taaseenahmed.eco_budget.service;
 import com.taaseenahmed.eco_budget.dto.response.BudgetDTO;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Budget;
-import com.taaseenahmed.eco_budget.repository.AppUserRepository;
 import com.taaseenahmed.eco_budget.entity.Category;
-import com.taaseenahmed.eco_budget.entity.Transaction;
 import com.taaseenahmed.eco_budget.repository.BudgetRepository;
-import com.taaseenahmed.eco_budget.repository.TransactionRepository;
+import com.taaseenahmed.eco_budget.repository.ProgressTotal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,15 +18,10 @@ import java.util.stream.Collectors;
 public class BudgetService {
 
     private final BudgetRepository budgetRepository;
-    private final AppUserRepository appUserRepository;
     private final CategoryService categoryService;
-    private final TransactionRepository transactionRepository;
 
     // Create a new budget for the authenticated user
-    public BudgetDTO createBudget(BudgetDTO budgetDTO, String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public BudgetDTO createBudget(BudgetDTO budgetDTO, AppUser user) {
         Category category = categoryService.getCategoryById(budgetDTO.getCategoryId());
 
         Budget budget = new Budget();
@@ -40,23 +32,22 @@ public class BudgetService {
         budget.setEndDate(budgetDTO.getEndDate());
 
         Budget savedBudget = budgetRepository.save(budget);
-        return convertToDTO(savedBudget);
+        return convertToDTO(savedBudget, calculateTotalsSpent(List.of(savedBudget)));
     }
 
-    public List<BudgetDTO> getBudgetsByUserEmail(String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Budget> budgets = budgetRepository.findByAppUser(user);
+    public List<BudgetDTO> getBudgetsByUser(AppUser user) {
+        // One query for the budgets and one grouped aggregate for every budget's progress
+        List<Budget> budgets = budgetRepository.findByAppUserWithCategory(user);
+        Map<Long, Double> totalsSpent = calculateTotalsSpent(budgets);
         return budgets.stream()
-                .map(this::convertToDTO)
+                .map(budget -> convertToDTO(budget, totalsSpent))
                 .collect(Collectors.toList());
     }
 
     public BudgetDTO getBudgetById(Long budgetId) {
         Budget budget = budgetRepository.findById(budgetId)
                 .orElseThrow(() -> new RuntimeException("Budget not found for ID: " + budgetId));
-        return convertToDTO(budget);
+        return convertToDTO(budget, calculateTotalsSpent(List.of(budget)));
     }
 
     public BudgetDTO updateBudget(Long id, BudgetDTO budgetDTO) {
@@ -72,7 +63,7 @@ public class BudgetService {
 
         // Save and return the updated budget as a DTO
         Budget updatedBudget = budgetRepository.save(budget);
-        return convertToDTO(updatedBudget);
+        return convertToDTO(updatedBudget, calculateTotalsSpent(List.of(updatedBudget)));
     }
 
     // Delete a budget by its ID
@@ -82,15 +73,17 @@ public class BudgetService {
         budgetRepository.delete(budget);
     }
 
-    public Double calculateTotalSpent(Long categoryId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transaction> transactions = transactionRepository.findByCategoryIdAndDateBetween(categoryId, startDate, endDate);
-        return transactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+    // Total spent per budget ID, computed in a single grouped query scoped to each budget's owner
+    public Map<Long, Double> calculateTotalsSpent(List<Budget> budgets) {
+        if (budgets.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> budgetIds = budgets.stream().map(Budget::getId).collect(Collectors.toList());
+        return budgetRepository.sumSpentByBudgetIds(budgetIds).stream()
+                .collect(Collectors.toMap(ProgressTotal::getId, total -> total.getTotal().doubleValue()));
     }
 
-    private BudgetDTO convertToDTO(Budget budget) {
+    private BudgetDTO convertToDTO(Budget budget, Map<Long, Double> totalsSpent) {
         BudgetDTO dto = new BudgetDTO();
         dto.setId(budget.getId());
         dto.setCategoryId(budget.getCategory().getId());
@@ -98,7 +91,7 @@ public class BudgetService {
         dto.setAmount(budget.getAmount());
         dto.setStartDate(budget.getStartDate());
         dto.setEndDate(budget.getEndDate());
-        dto.setTotalSpent(calculateTotalSpent(budget.getCategory().getId(), budget.getStartDate(), budget.getEndDate())); // Set totalSpent
+        dto.setTotalSpent(totalsSpent.getOrDefault(budget.getId(), 0.0)); // Set totalSpent
         return dto;
     }
 }
@@ -0,0 +1,205 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.repository.TransactionRepository;
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+// Refines transaction carbon footprints from their descriptions on a bounded background worker pool.
+// The PENDING status is persisted, so anything still queued at shutdown is picked up again by the sweeper.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CarbonEnrichmentService {
+
+    private final TransactionRepository transactionRepository;
+    private final CarbonMultiplierService carbonMultiplierService;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${carbon.enrichment.async:false}")
+    private boolean asyncEnabled;
+
+    @Value("${carbon.enrichment.workers:4}")
+    private int workers;
+
+    @Value("${carbon.enrichment.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${carbon.enrichment.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${carbon.enrichment.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${carbon.enrichment.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    // Transaction IDs currently queued, running or waiting for a retry
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean accepting;
+
+    @PostConstruct
+    void start() {
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("carbon-enrichment-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("carbon-enrichment-retry-"));
+        accepting = true;
+    }
+
+    // Whether transaction writes should defer description-based multipliers to the background
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    // Queue a PENDING transaction for enrichment once the surrounding database transaction (if any) has committed
+    public void enqueue(Long transactionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submitNew(transactionId);
+                }
+            });
+        } else {
+            submitNew(transactionId);
+        }
+    }
+
+    // Periodically re-queue PENDING transactions that were rejected by a full queue or interrupted by a restart
+    @Scheduled(initialDelayString = "${carbon.enrichment.sweep-initial-delay-ms:10000}",
+            fixedDelayString = "${carbon.enrichment.sweep-interval-ms:60000}")
+    public void requeuePending() {
+        if (!accepting) {
+            return;
+        }
+        int capacity = workerPool.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Long> pendingIds = transactionRepository.findIdsByCarbonEnrichmentStatus(
+                CarbonEnrichmentStatus.PENDING, PageRequest.of(0, capacity));
+        for (Long id : pendingIds) {
+            if (!submitNew(id)) {
+                break;
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        accepting = false;
+        // Scheduled retries are dropped, their rows stay PENDING in the database
+        retryScheduler.shutdownNow();
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            List<Runnable> dropped = workerPool.shutdownNow();
+            log.info("Carbon enrichment stopped with {} queued transactions left PENDING for the next start", dropped.size());
+        }
+    }
+
+    // Submit a first attempt; returns false only when the queue is full or the service is stopping
+    private boolean submitNew(Long transactionId) {
+        if (!inFlight.add(transactionId)) {
+            return true; // Already queued, the worker re-reads the latest row
+        }
+        return submit(transactionId, 1);
+    }
+
+    private boolean submit(Long transactionId, int attempt) {
+        if (!accepting) {
+            inFlight.remove(transactionId);
+            return false;
+        }
+        try {
+            workerPool.execute(() -> process(transactionId, attempt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(transactionId);
+            log.warn("Carbon enrichment queue is full, transaction {} stays PENDING until the next sweep", transactionId);
+            return false;
+        }
+    }
+
+    private void process(Long transactionId, int attempt) {
+        Transaction transaction;
+        Double multiplier;
+        try {
+            Optional<Transaction> found = transactionRepository.findById(transactionId);
+            if (found.isEmpty() || found.get().getCarbonEnrichmentStatus() != CarbonEnrichmentStatus.PENDING) {
+                inFlight.remove(transactionId);
+                return;
+            }
+            transaction = found.get();
+            multiplier = carbonMultiplierService.getCarbonMultiplier(
+                    transaction.getCategory().getName(), transaction.getDescription());
+        } catch (Exception e) {
+            log.warn("Carbon enrichment attempt {} failed for transaction {}", attempt, transactionId, e);
+            retryOrFail(transactionId, attempt);
+            return;
+        }
+
+        if (multiplier == null) {
+            if (!carbonMultiplierService.isLlmAvailable()) {
+                // Circuit open: keep the category multiplier and leave the row PENDING for a later sweep without using up an attempt
+                inFlight.remove(transactionId);
+                return;
+            }
+            retryOrFail(transactionId, attempt);
+            return;
+        }
+
+        // Only apply the result if the transaction still looks the way it did when it was scored,
+        // and move the rollup's carbon total by the same difference in that database transaction
+        double carbonFootprint = transaction.getAmount().doubleValue() * multiplier;
+        double previousFootprint = transaction.getCarbonFootprint() != null ? transaction.getCarbonFootprint() : 0.0;
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = transactionRepository.completeCarbonEnrichment(transactionId, transaction.getDescription(),
+                    transaction.getAmount(), transaction.getCategory().getId(), transaction.getDate(), carbonFootprint, multiplier);
+            if (rows > 0) {
+                dailyRollupService.recordCarbonChange(transaction.getAppUser().getId(), transaction.getCategory().getId(),
+                        transaction.getDate().toLocalDate(), carbonFootprint - previousFootprint);
+            }
+            return rows;
+        });
+        inFlight.remove(transactionId);
+        if (updated == null || updated == 0) {
+            submitNew(transactionId); // Edited while being scored, score the new content
+        }
+    }
+
+    private void retryOrFail(Long transactionId, int attempt) {
+        if (attempt >= maxAttempts) {
+            transactionRepository.markCarbonEnrichmentFailed(transactionId);
+            inFlight.remove(transactionId);
+            log.warn("Carbon enrichment gave up on transaction {} after {} attempts", transactionId, attempt);
+            return;
+        }
+        long delay = retryBackoffMs * (1L << (attempt - 1));
+        try {
+            retryScheduler.schedule(() -> submit(transactionId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(transactionId); // Shutting down, left PENDING
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+// Coalesces concurrent carbon multiplier lookups into one structured ChatGPT prompt per short window.
+// Identical lookups share a single future, and items the batch answer does not cover fall back to one call each.
+// Each answer is written to the cache once, here, before its future completes for every waiter.
+@Slf4j
+@Service
+public class CarbonMultiplierBatcher {
+
+    private final ChatGPTService chatGPTService;
+    private final CarbonMultiplierCache carbonMultiplierCache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long windowMillis;
+
+    // Lookups that are pending or in flight, by normalized cache key
+    private final Map<String, CompletableFuture<Double>> inFlight = new ConcurrentHashMap<>();
+    private final List<Item> pending = new ArrayList<>();
+    private final ScheduledExecutorService flushScheduler;
+    private final ThreadPoolExecutor senders;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public CarbonMultiplierBatcher(ChatGPTService chatGPTService,
+                                   CarbonMultiplierCache carbonMultiplierCache,
+                                   @Value("${carbon.multiplier-batch.enabled:true}") boolean enabled,
+                                   @Value("${carbon.multiplier-batch.max-size:20}") int maxBatchSize,
+                                   @Value("${carbon.multiplier-batch.window-ms:50}") long windowMillis,
+                                   @Value("${carbon.multiplier-batch.sender-threads:4}") int senderThreads,
+                                   @Value("${carbon.multiplier-batch.queue-capacity:100}") int queueCapacity) {
+        this.chatGPTService = chatGPTService;
+        this.carbonMultiplierCache = carbonMultiplierCache;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("carbon-multiplier-batch-"));
+        // Bounded, so batches flushed while ChatGPT is slow are rejected (and fall back to the category multiplier) instead of piling up
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("carbon-multiplier-sender-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Queue a lookup; the future completes with the multiplier, or null if ChatGPT could not provide one
+    public CompletableFuture<Double> submit(String key, String categoryName, String description) {
+        CompletableFuture<Double> existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+        future.whenComplete((value, error) -> inFlight.remove(key, future));
+
+        Item item = new Item(key, categoryName, description, future);
+        if (!enabled) {
+            try {
+                senders.execute(() -> completeSingle(item));
+            } catch (RejectedExecutionException e) {
+                future.complete(null);
+            }
+            return future;
+        }
+
+        List<Item> fullBatch = null;
+        synchronized (pending) {
+            pending.add(item);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drainPending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = flushScheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flushScheduler.shutdownNow();
+        flush();
+        senders.shutdown();
+        if (!senders.awaitTermination(30, TimeUnit.SECONDS)) {
+            senders.shutdownNow();
+        }
+        // Anyone still waiting falls back to the category multiplier
+        inFlight.values().forEach(future -> future.complete(null));
+    }
+
+    private void flush() {
+        List<Item> batch;
+        synchronized (pending) {
+            batch = drainPending();
+        }
+        dispatch(batch);
+    }
+
+    // Must be called while holding the pending lock
+    private List<Item> drainPending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Item> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void dispatch(List<Item> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            senders.execute(() -> sendBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(item -> item.future().complete(null));
+        }
+    }
+
+    private void sendBatch(List<Item> batch) {
+        if (batch.size() == 1) {
+            completeSingle(batch.get(0));
+            return;
+        }
+
+        String completion = chatGPTService.getCompletion(LlmPurpose.MULTIPLIER, createBatchPrompt(batch));
+        JsonNode multipliers = parseBatchResponse(completion);
+
+        List<Item> unanswered = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            JsonNode value = multipliers != null ? multipliers.get(String.valueOf(i + 1)) : null;
+            if (value != null && value.isNumber()) {
+                complete(batch.get(i), value.doubleValue());
+            } else {
+                unanswered.add(batch.get(i));
+            }
+        }
+
+        if (!unanswered.isEmpty() && !chatGPTService.isAvailable()) {
+            unanswered.forEach(item -> item.future().complete(null)); // Circuit open, single prompts would be refused too
+            return;
+        }
+        if (!unanswered.isEmpty()) {
+            log.warn("Batch carbon multiplier response covered {} of {} items, falling back to single prompts",
+                    batch.size() - unanswered.size(), batch.size());
+            for (Item item : unanswered) {
+                try {
+                    senders.execute(() -> completeSingle(item));
+                } catch (RejectedExecutionException e) {
+                    item.future().complete(null);
+                }
+            }
+        }
+    }
+
+    // Single prompts are sent without a sender thread waiting on them; the answer is handed back to a sender thread,
+    // so its cache write (a database upsert) never runs on a ChatGPT thread
+    private void completeSingle(Item item) {
+        String prompt = CarbonMultiplierService.createCarbonMultiplierPrompt(item.categoryName(), item.description());
+        chatGPTService.getCarbonMultiplierAsync(prompt)
+                .whenComplete((multiplier, error) -> {
+                    Double answer = error == null ? multiplier : null;
+                    try {
+                        senders.execute(() -> complete(item, answer));
+                    } catch (RejectedExecutionException e) {
+                        item.future().complete(answer); // Senders saturated: answer the waiters, skip the cache write
+                    }
+                });
+    }
+
+    private void complete(Item item, Double multiplier) {
+        carbonMultiplierCache.put(item.key(), multiplier); // Ignores null
+        item.future().complete(multiplier);
+    }
+
+    // One prompt listing every item by number, asking for a JSON object keyed by those numbers
+    private String createBatchPrompt(List<Item> batch) {
+        StringBuilder prompt = new StringBuilder("For each numbered transaction below, provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent. "
+                + "Respond only with a JSON object mapping each transaction number to its multiplier, for example {\"1\": 0.42, \"2\": 0.1}.\n");
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            prompt.append(i + 1).append(". Category: '").append(item.categoryName()).append("'");
+            if (item.description() != null && !item.description().isBlank()) {
+                prompt.append(", description: ").append(item.description());
+            }
+            prompt.append("\n");
+        }
+        return prompt.toString();
+    }
+
+    // Extract the JSON object from the completion, tolerating code fences or surrounding text
+    private JsonNode parseBatchResponse(String completion) {
+        if (completion == null) {
+            return null;
+        }
+        int start = completion.indexOf('{');
+        int end = completion.lastIndexOf('}');
+        if (start < 0 || end <= start) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(completion.substring(start, end + 1));
+            return node.isObject() ? node : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private record Item(String key, String categoryName, String description, CompletableFuture<Double> future) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.CacheStatsDTO;
+import com.taaseenahmed.eco_budget.entity.CarbonMultiplierCacheEntry;
+import com.taaseenahmed.eco_budget.repository.CarbonMultiplierCacheRepository;
+import com.taaseenahmed.eco_budget.util.ExpiringLruCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// Two-tier read-through cache of carbon multipliers: a bounded in-process LRU in front of the carbon_multiplier_cache table.
+@Slf4j
+@Service
+public class CarbonMultiplierCache {
+
+    // Amounts such as "12", "£3.50" or "1,299.99" say nothing about the kind of purchase
+    private static final Pattern AMOUNTS = Pattern.compile("[£$€]?\\d+(?:[.,]\\d+)*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final CarbonMultiplierCacheRepository repository;
+    private final ExpiringLruCache<String, Double> memory;
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong persistentMisses = new AtomicLong();
+
+    public CarbonMultiplierCache(CarbonMultiplierCacheRepository repository,
+                                 @Value("${carbon.multiplier-cache.max-size:10000}") int maxSize,
+                                 @Value("${carbon.multiplier-cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.repository = repository;
+        this.memory = new ExpiringLruCache<>(maxSize, TimeUnit.MINUTES.toMillis(ttlMinutes));
+    }
+
+    // Build the cache key: lower-cased, amounts stripped and whitespace collapsed so near-identical prompts share an entry
+    public static String normalizeKey(String categoryName, String description) {
+        return normalize(categoryName) + "|" + normalize(description);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAmounts = AMOUNTS.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return WHITESPACE.matcher(withoutAmounts).replaceAll(" ").trim();
+    }
+
+    // Look up a multiplier in memory first, then in the database; returns null on a full miss
+    public Double get(String key) {
+        Double cached = memory.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<CarbonMultiplierCacheEntry> stored = findPersisted(key);
+        if (stored.isPresent()) {
+            persistentHits.incrementAndGet();
+            memory.put(key, stored.get().getCarbonMultiplier());
+            return stored.get().getCarbonMultiplier();
+        }
+        persistentMisses.incrementAndGet();
+        return null;
+    }
+
+    // Store a freshly scored multiplier in both tiers
+    public void put(String key, Double carbonMultiplier) {
+        if (carbonMultiplier == null) {
+            return;
+        }
+        memory.put(key, carbonMultiplier);
+        try {
+            repository.save(new CarbonMultiplierCacheEntry(key, carbonMultiplier, LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            // A concurrent writer got there first, the in-memory entry is enough
+            log.debug("Could not persist carbon multiplier for key '{}'", key, e);
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        return CacheStatsDTO.builder()
+                .name("carbon-multiplier")
+                .size(memory.size())
+                .maxSize(memory.getMaxSize())
+                .hits(memory.getHits())
+                .misses(memory.getMisses())
+                .evictions(memory.getEvictions())
+                .expirations(memory.getExpirations())
+                .persistentHits(persistentHits.get())
+                .persistentMisses(persistentMisses.get())
+                .build();
+    }
+
+    private Optional<CarbonMultiplierCacheEntry> findPersisted(String key) {
+        try {
+            return repository.findById(key);
+        } catch (DataAccessException e) {
+            log.warn("Carbon multiplier cache table unavailable, falling back to ChatGPT", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.taaseenahmed.eco_budget.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@RequiredArgsConstructor
+public class CarbonMultiplierService {
+
+    private final CarbonMultiplierCache carbonMultiplierCache;
+    private final CarbonMultiplierBatcher carbonMultiplierBatcher;
+    private final ChatGPTService chatGPTService;
+
+    @Value("${carbon.multiplier-batch.timeout-ms:30000}")
+    private long lookupTimeoutMillis;
+
+    // Create a prompt for carbon multiplier
+    public static String createCarbonMultiplierPrompt(String categoryName, String description) {
+        if (description == null || description.isBlank()) {
+            return String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. Only provide the numeric multiplier.", categoryName);
+        } else {
+            return String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. This is a description of the transaction: %s. Only provide the numeric multiplier.", categoryName, description);
+        }
+    }
+
+    // Get carbon multiplier, reading through the cache before asking ChatGPT; null if no multiplier could be obtained
+    public Double getCarbonMultiplier(String categoryName, String description) {
+        try {
+            return getCarbonMultiplierAsync(categoryName, description).get(lookupTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    // Whether ChatGPT is currently being called at all (false while its circuit breaker is open)
+    public boolean isLlmAvailable() {
+        return chatGPTService.isAvailable();
+    }
+
+    // Non-blocking variant; cache misses are coalesced into batched ChatGPT prompts
+    public CompletableFuture<Double> getCarbonMultiplierAsync(String categoryName, String description) {
+        String key = CarbonMultiplierCache.normalizeKey(categoryName, description);
+        Double cached = carbonMultiplierCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return carbonMultiplierBatcher.submit(key, categoryName, description); // The batcher caches the answer once for all waiters
+    }
+}
@@ -3,7 +3,6 @@ package com.taaseenahmed.eco_budget.service;
 import com.taaseenahmed.eco_budget.dto.response.CategoryDTO;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Category;
-import com.taaseenahmed.eco_budget.repository.AppUserRepository;
 import com.taaseenahmed.eco_budget.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,14 +15,10 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
-    private final AppUserRepository appUserRepository;
-    private final ChatGPTService chatGPTService;
+    private final CarbonMultiplierService carbonMultiplierService;
 
     // Get all categories for a user (returning CategoryDTOs)
-    public List<CategoryDTO> getCategoriesForUser(String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public List<CategoryDTO> getCategoriesForUser(AppUser user) {
         List<Category> categories = categoryRepository.findByUserIdOrUserIsNull(user.getId());
 
         // Map Category to CategoryDTO (passing both id and name)
@@ -33,10 +28,7 @@ public class CategoryService {
     }
 
     // Add a new category for a user (returning CategoryDTO)
-    public CategoryDTO addCategory(String categoryName, String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public CategoryDTO addCategory(String categoryName, AppUser user) {
         // Request carbon multiplier from ChatGPT
         Double carbonMultiplier = getCarbonMultiplier(categoryName);
 
@@ -57,14 +49,8 @@ public class CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found"));
     }
 
-    // Create a prompt for carbon multiplier
-    private String createCarbonMultiplierPrompt(String categoryName) {
-        return String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. Only provide the numeric multiplier.", categoryName);
-    }
-
-    // Get carbon multiplier from ChatGPTService
+    // Get carbon multiplier for a category, reading through the shared multiplier cache
     public Double getCarbonMultiplier(String categoryName) {
-        String prompt = createCarbonMultiplierPrompt(categoryName);
-        return chatGPTService.getCarbonMultiplier(prompt);
+        return carbonMultiplierService.getCarbonMultiplier(categoryName, null);
     }
 }
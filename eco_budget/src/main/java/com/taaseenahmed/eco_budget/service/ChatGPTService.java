@@ -1,107 +1,360 @@
 package com.taaseenahmed.eco_budget.service;
 
 import com.taaseenahmed.eco_budget.dto.request.ChatGPTRequest;
+import com.taaseenahmed.eco_budget.exception.LlmUnavailableException;
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
 import io.github.cdimascio.dotenv.Dotenv;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+// Non-blocking ChatGPT client. The futures returned by the public *Async methods complete on chatgpt-callback- threads,
+// never on the HTTP client's own, so callers may block (JDBC, servlet output) in their callbacks without stalling other
+// responses or the guard's bookkeeping. Only the listener given to streamCompletionAsync runs on a client thread and must not block.
+@Slf4j
 @Service
 public class ChatGPTService {
 
-    // API URL and keys for ChatGPT API
-    private static final String API_URL = "https://api.openai.com/v1/chat/completions";
     private static final String MODEL = "gpt-4o-mini-2024-07-18";
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
 
+    private final URI apiUrl; // OpenAI by default; the load-test harness points it at a local stand-in
     private final String apiKey;
-    private final RestTemplate restTemplate = new RestTemplate();
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LlmGuard llmGuard;
+    private final MeterRegistry meterRegistry;
 
-    public ChatGPTService() {
-        if (System.getenv("CHATGPT_API_KEY") != null) {
-            this.apiKey = System.getenv("CHATGPT_API_KEY");
-        } else {
-            Dotenv dotenv = Dotenv.configure().load();
-            this.apiKey = dotenv.get("CHATGPT_API_KEY");
+    // One shared client: pooled keep-alive connections, HTTP/2 when the server offers it
+    private final ExecutorService httpExecutor;
+    private final ThreadPoolExecutor callbackExecutor;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final long totalTimeoutMillis;
+
+    public ChatGPTService(LlmGuard llmGuard,
+                          MeterRegistry meterRegistry,
+                          @Value("${chatgpt.api-url:https://api.openai.com/v1/chat/completions}") String apiUrl,
+                          @Value("${chatgpt.connect-timeout-ms:5000}") long connectTimeoutMillis,
+                          @Value("${chatgpt.read-timeout-ms:30000}") long readTimeoutMillis,
+                          @Value("${chatgpt.total-timeout-ms:60000}") long totalTimeoutMillis,
+                          @Value("${chatgpt.client-threads:4}") int clientThreads,
+                          @Value("${chatgpt.callback-threads:8}") int callbackThreads,
+                          @Value("${chatgpt.callback-queue-capacity:100}") int callbackQueueCapacity) {
+        String key = System.getenv("CHATGPT_API_KEY");
+        if (key == null) {
+            Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+            key = dotenv.get("CHATGPT_API_KEY");
         }
 
-        if (this.apiKey == null || this.apiKey.isBlank()) {
-            throw new IllegalStateException("CHATGPT_API_KEY environment variable is not set or is empty.");
+        // Without a key the app still starts: every call fails fast and callers use their non-LLM fallbacks
+        if (key == null || key.isBlank()) {
+            log.warn("CHATGPT_API_KEY is not set or is empty, ChatGPT features are disabled");
+            key = null;
         }
+        this.apiKey = key;
+        this.apiUrl = URI.create(apiUrl);
+
+        this.llmGuard = llmGuard;
+        this.meterRegistry = meterRegistry;
+        this.httpExecutor = Executors.newFixedThreadPool(clientThreads, new NamedThreadFactory("chatgpt-http-"));
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(httpExecutor)
+                .build();
+        // Pending callbacks are bounded by the guard's bulkhead, so the queue only fills if that limit is raised past it;
+        // the client thread then runs the callback itself rather than dropping a completion
+        this.callbackExecutor = new ThreadPoolExecutor(callbackThreads, callbackThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(callbackQueueCapacity), new NamedThreadFactory("chatgpt-callback-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.readTimeout = Duration.ofMillis(readTimeoutMillis);
+        this.totalTimeoutMillis = totalTimeoutMillis;
     }
 
     public Double getCarbonMultiplier(String prompt) {
+        return getCarbonMultiplierAsync(prompt).join();
+    }
+
+    // Completes with the first number in the answer, or null if there is none or the call failed
+    public CompletableFuture<Double> getCarbonMultiplierAsync(String prompt) {
+        return onCallbackThread(requestCompletionAsync(LlmPurpose.MULTIPLIER, prompt)
+                .thenApply(completion -> {
+                    log.debug("ChatGPT API response: {}", completion);
+
+                    // Extract the numeric multiplier from the response using regex
+                    Matcher matcher = NUMBER.matcher(completion);
+                    if (matcher.find()) {
+                        return Double.parseDouble(matcher.group()); // Parse the first number found
+                    }
+                    throw new NumberFormatException("No valid number found in the response");
+                })
+                .exceptionally(error -> {
+                    logFailure("Carbon multiplier", error);
+                    return null;
+                }));
+    }
+
+    public String getRecommendation(String prompt) {
+        return getRecommendationAsync(prompt).join();
+    }
+
+    public CompletableFuture<String> getRecommendationAsync(String prompt) {
+        return onCallbackThread(requestCompletionAsync(LlmPurpose.RECOMMENDATION, prompt)
+                .exceptionally(error -> {
+                    logFailure("Recommendation", error);
+                    return "Error generating recommendation: " + rootCause(error).getMessage();
+                }));
+    }
+
+    // Raw completion text for callers that parse structured output themselves, null on failure
+    public String getCompletion(LlmPurpose purpose, String prompt) {
+        return getCompletionAsync(purpose, prompt).join();
+    }
+
+    public CompletableFuture<String> getCompletionAsync(LlmPurpose purpose, String prompt) {
+        return onCallbackThread(requestCompletionAsync(purpose, prompt)
+                .exceptionally(error -> {
+                    logFailure("Completion", error);
+                    return null;
+                }));
+    }
+
+    // Recorded with stored recommendations and benchmarks
+    public String getModel() {
+        return MODEL;
+    }
+
+    // False while the circuit breaker is open or no API key is configured, so callers can use their fallbacks without trying
+    public boolean isAvailable() {
+        return apiKey != null && llmGuard.isAvailable();
+    }
+
+    @PreDestroy
+    void stop() {
+        httpExecutor.shutdownNow();
+        callbackExecutor.shutdownNow();
+    }
+
+    // Send a single-message chat completion request; completes with the content of the first choice
+    private CompletableFuture<String> requestCompletionAsync(LlmPurpose purpose, String prompt) {
+        return timed(purpose, "complete", () -> sendCompletionAsync(prompt));
+    }
+
+    private CompletableFuture<String> sendCompletionAsync(String prompt) {
+        if (apiKey == null) {
+            return CompletableFuture.failedFuture(new LlmUnavailableException("CHATGPT_API_KEY is not configured"));
+        }
+        HttpRequest request;
         try {
-            String requestBody = objectMapper.writeValueAsString(
-                    new ChatGPTRequest(MODEL, prompt, 0.7)
-            );
-
-            // Set up HTTP headers with authorization and content type
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("Content-Type", "application/json");
-
-            // Create HTTP request with body and headers
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-
-            // Send the request to the ChatGPT API and get the response
-            ResponseEntity<String> response = restTemplate.exchange(API_URL, HttpMethod.POST, request, String.class);
-
-            // Parse the response to extract the content from the ChatGPT output
-            JsonNode root = objectMapper.readTree(response.getBody());
-            String completion = root.at("/choices/0/message/content").asText();
-
-            // Print the raw response for debugging
-            System.out.println("ChatGPT API response: " + completion);
-
-            // Extract the numeric multiplier from the response using regex
-            Pattern pattern = Pattern.compile("-?\\d+(\\.\\d+)?");
-            Matcher matcher = pattern.matcher(completion);
-            if (matcher.find()) {
-                Double parsedValue = Double.parseDouble(matcher.group());  // Parse the first number found
-                System.out.println("Parsed multiplier: " + parsedValue);  // Print the parsed value
-                return parsedValue;
-            } else {
-                throw new NumberFormatException("No valid number found in the response");
-            }
+            request = buildRequest(new ChatGPTRequest(MODEL, prompt, 0.7));
         } catch (Exception e) {
-            e.printStackTrace();  // Log the error if anything goes wrong
-            return null;  // Return null in case of failure
+            return CompletableFuture.failedFuture(e);
         }
+
+        // Send the request to the ChatGPT API without holding the caller's thread; the total timeout covers the body too.
+        // The guard may refuse the call outright, and counts HTTP errors and timeouts towards opening the circuit.
+        return llmGuard.execute(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .orTimeout(totalTimeoutMillis, TimeUnit.MILLISECONDS)
+                .thenApply(this::extractContent));
     }
 
-    public String getRecommendation(String prompt) {
+    // Streaming variant: each piece of content is handed to the listener as soon as it arrives (on an HTTP client thread,
+    // so the listener must not block), and the future completes with the full text once the stream ends.
+    // Goes through the same guard and timeouts.
+    public CompletableFuture<String> streamCompletionAsync(LlmPurpose purpose, String prompt, Consumer<String> onContent) {
+        return onCallbackThread(timed(purpose, "stream", () -> sendStreamingAsync(prompt, onContent)));
+    }
+
+    private CompletableFuture<String> sendStreamingAsync(String prompt, Consumer<String> onContent) {
+        if (apiKey == null) {
+            return CompletableFuture.failedFuture(new LlmUnavailableException("CHATGPT_API_KEY is not configured"));
+        }
+        HttpRequest request;
         try {
-            String requestBody = objectMapper.writeValueAsString(
-                    new ChatGPTRequest(MODEL, prompt, 0.7)
-            );
+            ChatGPTRequest body = new ChatGPTRequest(MODEL, prompt, 0.7);
+            body.setStream(true);
+            request = buildRequest(body);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("Content-Type", "application/json");
+        return llmGuard.execute(() -> {
+            StreamedCompletion completion = new StreamedCompletion(onContent);
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(completion, StreamedCompletion::getText, null))
+                    .orTimeout(totalTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .thenApply(response -> {
+                        if (response.statusCode() / 100 != 2) {
+                            throw new IllegalStateException("ChatGPT API returned HTTP " + response.statusCode());
+                        }
+                        return response.body();
+                    });
+        });
+    }
 
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
+    // Moves completion off the HTTP client's threads; a future that is already done (refused or failed before sending)
+    // is returned as is, so its callbacks run on the caller's thread
+    private <T> CompletableFuture<T> onCallbackThread(CompletableFuture<T> future) {
+        if (future.isDone()) {
+            return future;
+        }
+        return future.whenCompleteAsync((value, error) -> {
+        }, callbackExecutor);
+    }
 
-            ResponseEntity<String> response = restTemplate.exchange(API_URL, HttpMethod.POST, request, String.class);
-            JsonNode root = objectMapper.readTree(response.getBody());
+    // Every call is timed under chatgpt.requests, tagged with its purpose and how it ended (refused calls included)
+    private <T> CompletableFuture<T> timed(LlmPurpose purpose, String mode, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> sample.stop(Timer.builder("chatgpt.requests")
+                .description("ChatGPT API calls by purpose and outcome")
+                .tag("purpose", purpose.tagValue())
+                .tag("mode", mode)
+                .tag("outcome", outcome(error))
+                .publishPercentileHistogram()
+                .register(meterRegistry)));
+    }
+
+    private static String outcome(Throwable error) {
+        if (error == null) {
+            return "success";
+        }
+        Throwable cause = rootCause(error);
+        if (cause instanceof LlmUnavailableException) {
+            return "rejected"; // No API key, or refused by the circuit breaker, rate limiter or bulkhead
+        }
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
 
+    // Authorization and content type headers, and the time allowed for the response to start
+    private HttpRequest buildRequest(ChatGPTRequest body) throws Exception {
+        return HttpRequest.newBuilder(apiUrl)
+                .timeout(readTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private String extractContent(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("ChatGPT API returned HTTP " + response.statusCode());
+        }
+        try {
+            JsonNode root = objectMapper.readTree(response.body());
             JsonNode contentNode = root.at("/choices/0/message/content");
             if (!contentNode.isMissingNode()) {
                 return contentNode.asText();
-            } else {
-                throw new IllegalArgumentException("Invalid response structure from ChatGPT API");
             }
         } catch (Exception e) {
-            e.printStackTrace();
-            return "Error generating recommendation: " + e.getMessage();
+            throw new CompletionException(e);
+        }
+        throw new IllegalArgumentException("Invalid response structure from ChatGPT API");
+    }
+
+    // Reads the "data: {json}" lines of a streamed completion and collects the content deltas
+    private final class StreamedCompletion implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onContent;
+        private final StringBuilder text = new StringBuilder();
+
+        private StreamedCompletion(Consumer<String> onContent) {
+            this.onContent = onContent;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring("data:".length()).trim();
+            if (data.isEmpty() || data.equals("[DONE]")) {
+                return;
+            }
+            String content;
+            try {
+                JsonNode contentNode = objectMapper.readTree(data).at("/choices/0/delta/content");
+                if (!contentNode.isTextual()) {
+                    return; // Role announcements and the final chunk carry no content
+                }
+                content = contentNode.asText();
+            } catch (Exception e) {
+                log.debug("Skipping unreadable ChatGPT stream chunk: {}", data);
+                return;
+            }
+            text.append(content);
+            try {
+                onContent.accept(content);
+            } catch (RuntimeException e) {
+                log.debug("Streamed completion listener failed: {}", e.toString()); // e.g. the client went away, keep collecting
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        private String getText() {
+            return text.toString();
+        }
+    }
+
+    // Refusals by the guard are expected while the circuit is open, so they are not logged as warnings
+    private static void logFailure(String call, Throwable error) {
+        Throwable cause = rootCause(error);
+        if (cause instanceof LlmUnavailableException) {
+            log.debug("{} request not sent: {}", call, cause.getMessage());
+        } else {
+            log.warn("{} request failed: {}", call, cause.toString());
+        }
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
     }
 }
@@ -0,0 +1,195 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.entity.DailyRollup;
+import com.taaseenahmed.eco_budget.entity.DailyRollupId;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.repository.AppUserRepository;
+import com.taaseenahmed.eco_budget.repository.DailyRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Keeps the daily_rollup table in step with the transaction table by applying each write as a delta
+// in the same database transaction. A scheduled job re-derives the rollup from raw rows and repairs any drift.
+@Slf4j
+@Service
+public class DailyRollupService {
+
+    private static final double CARBON_TOLERANCE = 1e-6;
+
+    private final DailyRollupRepository dailyRollupRepository;
+    private final AppUserRepository appUserRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean repairOnDrift;
+
+    public DailyRollupService(DailyRollupRepository dailyRollupRepository,
+                              AppUserRepository appUserRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${rollup.repair-on-drift:true}") boolean repairOnDrift) {
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.appUserRepository = appUserRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repairOnDrift = repairOnDrift;
+    }
+
+    // Snapshot of what one transaction contributes to the rollup, taken before an entity is mutated
+    public record Contribution(Long userId, Long categoryId, LocalDate day,
+                               BigDecimal expense, BigDecimal income, double carbon) {
+
+        public static Contribution of(Transaction transaction) {
+            BigDecimal amount = transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO;
+            boolean income = "Income".equalsIgnoreCase(transaction.getType());
+            return new Contribution(
+                    transaction.getAppUser().getId(),
+                    transaction.getCategory().getId(),
+                    transaction.getDate().toLocalDate(),
+                    income ? BigDecimal.ZERO : amount,
+                    income ? amount : BigDecimal.ZERO,
+                    transaction.getCarbonFootprint() != null ? transaction.getCarbonFootprint() : 0.0);
+        }
+    }
+
+    // The rollup methods below must run inside the caller's database transaction
+
+    public void recordCreated(Transaction transaction) {
+        apply(Contribution.of(transaction), 1);
+    }
+
+    public void recordDeleted(Contribution before) {
+        apply(before, -1);
+    }
+
+    // Moves the old contribution out and the new one in; both may land on the same row
+    public void recordUpdated(Contribution before, Transaction after) {
+        Contribution now = Contribution.of(after);
+        if (now.equals(before)) {
+            return;
+        }
+        apply(before, -1);
+        apply(now, 1);
+    }
+
+    // A carbon-only change to an existing transaction, e.g. a background enrichment result
+    public void recordCarbonChange(Long userId, Long categoryId, LocalDate day, double carbonDelta) {
+        if (carbonDelta == 0.0) {
+            return;
+        }
+        dailyRollupRepository.applyDelta(userId, categoryId, day, BigDecimal.ZERO, BigDecimal.ZERO, carbonDelta, 0);
+    }
+
+    // Bulk inserts (imports) are pre-aggregated so each touched row is upserted once per batch
+    public void recordCreated(Collection<Transaction> transactions) {
+        Map<DailyRollupId, DailyRollup> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            Contribution contribution = Contribution.of(transaction);
+            DailyRollupId key = new DailyRollupId(contribution.userId(), contribution.categoryId(), contribution.day());
+            DailyRollup delta = deltas.computeIfAbsent(key, k -> new DailyRollup(
+                    k.getUserId(), k.getCategoryId(), k.getDay(), BigDecimal.ZERO, BigDecimal.ZERO, 0.0, 0));
+            delta.setExpenseTotal(delta.getExpenseTotal().add(contribution.expense()));
+            delta.setIncomeTotal(delta.getIncomeTotal().add(contribution.income()));
+            delta.setCarbonTotal(delta.getCarbonTotal() + contribution.carbon());
+            delta.setTransactionCount(delta.getTransactionCount() + 1);
+        }
+        for (DailyRollup delta : deltas.values()) {
+            dailyRollupRepository.applyDelta(delta.getUserId(), delta.getCategoryId(), delta.getDay(),
+                    delta.getExpenseTotal(), delta.getIncomeTotal(), delta.getCarbonTotal(), delta.getTransactionCount());
+        }
+    }
+
+    // Throw away a user's rollup rows and re-derive them from the transaction table
+    public void rebuildForUser(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyRollupRepository.deleteByUserIdInBulk(userId);
+            dailyRollupRepository.insertFromTransactions(userId);
+        });
+    }
+
+    // Populate the rollup on the first start after it was introduced
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dailyRollupRepository.count() > 0) {
+            return;
+        }
+        List<Long> userIds = appUserRepository.findAllIds();
+        userIds.forEach(this::rebuildForUser);
+        if (!userIds.isEmpty()) {
+            log.info("Built daily rollup for {} users", userIds.size());
+        }
+    }
+
+    // Compare every user's rollup against fresh aggregates and rebuild the ones that drifted
+    @Scheduled(cron = "${rollup.verify-cron:0 30 3 * * *}")
+    public void verifyAll() {
+        int drifted = 0;
+        for (Long userId : appUserRepository.findAllIds()) {
+            if (!matchesTransactions(userId)) {
+                drifted++;
+                log.warn("Daily rollup for user {} has drifted from the transaction table", userId);
+                if (repairOnDrift) {
+                    rebuildForUser(userId);
+                }
+            }
+        }
+        if (drifted > 0) {
+            log.warn("Daily rollup verification found {} drifted users (repair {})", drifted, repairOnDrift ? "applied" : "disabled");
+        }
+    }
+
+    // Whether the stored rollup for a user equals what the raw transactions add up to
+    public boolean matchesTransactions(Long userId) {
+        Map<DailyRollupId, DailyRollup> stored = new HashMap<>();
+        for (DailyRollup row : dailyRollupRepository.findByUserId(userId)) {
+            if (row.getTransactionCount() != 0) { // Rows emptied by deletes are equivalent to missing rows
+                stored.put(new DailyRollupId(row.getUserId(), row.getCategoryId(), row.getDay()), row);
+            }
+        }
+
+        List<Object[]> fresh = dailyRollupRepository.aggregateTransactionsByDay(userId);
+        if (fresh.size() != stored.size()) {
+            return false;
+        }
+        for (Object[] aggregate : fresh) {
+            DailyRollupId key = new DailyRollupId(userId, ((Number) aggregate[0]).longValue(), toLocalDate(aggregate[1]));
+            DailyRollup row = stored.get(key);
+            if (row == null
+                    || toBigDecimal(aggregate[2]).compareTo(row.getExpenseTotal()) != 0
+                    || toBigDecimal(aggregate[3]).compareTo(row.getIncomeTotal()) != 0
+                    || Math.abs(((Number) aggregate[4]).doubleValue() - row.getCarbonTotal()) > CARBON_TOLERANCE
+                    || ((Number) aggregate[5]).longValue() != row.getTransactionCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        Objects.requireNonNull(contribution.userId(), "Rollup contribution without a user");
+        dailyRollupRepository.applyDelta(contribution.userId(), contribution.categoryId(), contribution.day(),
+                sign > 0 ? contribution.expense() : contribution.expense().negate(),
+                sign > 0 ? contribution.income() : contribution.income().negate(),
+                sign * contribution.carbon(), sign);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.EmissionFactorStatsDTO;
+import com.taaseenahmed.eco_budget.util.AhoCorasickMatcher;
+import com.taaseenahmed.eco_budget.util.FactorTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local carbon multipliers from a versioned keyword/merchant -> kgCO2e per currency unit table, bundled with the app.
+// Descriptions are matched in a single pass by a precompiled automaton, so only unmatched descriptions need ChatGPT.
+@Slf4j
+@Service
+public class EmissionFactorEngine {
+
+    private final boolean enabled;
+    private final String version;
+    private final AhoCorasickMatcher<Double> matcher;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong matchNanos = new AtomicLong();
+    private final AtomicLong maxMatchNanos = new AtomicLong();
+
+    public EmissionFactorEngine(ResourceLoader resourceLoader,
+                                @Value("${emission-factors.enabled:true}") boolean enabled,
+                                @Value("${emission-factors.location:classpath:emission-factors.csv}") String location) throws IOException {
+        this.enabled = enabled;
+        FactorTable table = enabled
+                ? FactorTable.load(resourceLoader.getResource(location))
+                : new FactorTable("none", Map.of());
+        if (enabled) {
+            log.info("Loaded {} emission factors, version {}", table.factors().size(), table.version());
+        }
+        this.version = table.version();
+        this.matcher = new AhoCorasickMatcher<>(table.factors());
+    }
+
+    // Multiplier for the most specific keyword in the description, or null when the table has no match
+    public Double match(String description) {
+        if (!enabled || description == null || description.isBlank()) {
+            return null;
+        }
+        long started = System.nanoTime();
+        Double factor = matcher.findLongest(description);
+        long elapsed = System.nanoTime() - started;
+
+        lookups.incrementAndGet();
+        matchNanos.addAndGet(elapsed);
+        maxMatchNanos.accumulateAndGet(elapsed, Math::max);
+        if (factor != null) {
+            hits.incrementAndGet();
+        }
+        return factor;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public EmissionFactorStatsDTO getStats() {
+        long lookupCount = lookups.get();
+        long hitCount = hits.get();
+        return EmissionFactorStatsDTO.builder()
+                .enabled(enabled)
+                .version(version)
+                .keywords(matcher.size())
+                .lookups(lookupCount)
+                .hits(hitCount)
+                .hitRate(lookupCount == 0 ? 0.0 : 100.0 * hitCount / lookupCount)
+                .averageMatchNanos(lookupCount == 0 ? 0 : matchNanos.get() / lookupCount)
+                .maxMatchNanos(maxMatchNanos.get())
+                .build();
+    }
+}
@@ -3,17 +3,14 @@ package com.taaseenahmed.eco_budget.service;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.entity.Goal;
 import com.taaseenahmed.eco_budget.dto.response.GoalDTO;
-import com.taaseenahmed.eco_budget.repository.AppUserRepository;
 import com.taaseenahmed.eco_budget.entity.Category;
-import com.taaseenahmed.eco_budget.entity.Transaction;
 import com.taaseenahmed.eco_budget.repository.GoalRepository;
-import com.taaseenahmed.eco_budget.repository.TransactionRepository;
+import com.taaseenahmed.eco_budget.repository.ProgressTotal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,15 +18,10 @@ import java.util.stream.Collectors;
 public class GoalService {
 
     private final GoalRepository goalRepository;
-    private final AppUserRepository appUserRepository;
     private final CategoryService categoryService;
-    private final TransactionRepository transactionRepository;
 
     // Create a new budget for the authenticated user
-    public GoalDTO createGoal(GoalDTO goalDTO, String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public GoalDTO createGoal(GoalDTO goalDTO, AppUser user) {
         Category category = categoryService.getCategoryById(goalDTO.getCategoryId());
 
         Goal goal = new Goal();
@@ -40,23 +32,22 @@ public class GoalService {
         goal.setEndDate(goalDTO.getEndDate());
 
         Goal savedGoal = goalRepository.save(goal);
-        return convertToDTO(savedGoal);
+        return convertToDTO(savedGoal, calculateTotalCarbonFootprints(List.of(savedGoal)));
     }
 
-    public List<GoalDTO> getGoalByUserEmail(String userEmail) {
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Goal> goals = goalRepository.findByAppUser(user);
+    public List<GoalDTO> getGoalsByUser(AppUser user) {
+        // One query for the goals and one grouped aggregate for every goal's progress
+        List<Goal> goals = goalRepository.findByAppUserWithCategory(user);
+        Map<Long, Double> totalCarbonFootprints = calculateTotalCarbonFootprints(goals);
         return goals.stream()
-                .map(this::convertToDTO)
+                .map(goal -> convertToDTO(goal, totalCarbonFootprints))
                 .collect(Collectors.toList());
     }
 
     public GoalDTO getGoalById(Long goalId) {
         Goal goal = goalRepository.findById(goalId)
                 .orElseThrow(() -> new RuntimeException("Goal not found for ID: " + goalId));
-        return convertToDTO(goal);
+        return convertToDTO(goal, calculateTotalCarbonFootprints(List.of(goal)));
     }
 
     public GoalDTO updateGoal(Long id, GoalDTO goalDTO) {
@@ -72,7 +63,7 @@ public class GoalService {
 
         // Save and return the updated goal as a DTO
         Goal updatedGoal = goalRepository.save(goal);
-        return convertToDTO(updatedGoal);
+        return convertToDTO(updatedGoal, calculateTotalCarbonFootprints(List.of(updatedGoal)));
     }
 
     // Delete a Goal by its ID
@@ -82,15 +73,17 @@ public class GoalService {
         goalRepository.delete(goal);
     }
 
-    public Double calculateTotalCarbonFootprint(Long categoryId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transaction> transactions = transactionRepository.findByCategoryIdAndDateBetween(categoryId, startDate, endDate);
-        return transactions.stream()
-                .map(transaction -> BigDecimal.valueOf(transaction.getCarbonFootprint()))
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+    // Total carbon footprint per goal ID, computed in a single grouped query scoped to each goal's owner
+    public Map<Long, Double> calculateTotalCarbonFootprints(List<Goal> goals) {
+        if (goals.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> goalIds = goals.stream().map(Goal::getId).collect(Collectors.toList());
+        return goalRepository.sumCarbonFootprintByGoalIds(goalIds).stream()
+                .collect(Collectors.toMap(ProgressTotal::getId, total -> total.getTotal().doubleValue()));
     }
 
-    private GoalDTO convertToDTO(Goal goal) {
+    private GoalDTO convertToDTO(Goal goal, Map<Long, Double> totalCarbonFootprints) {
         GoalDTO dto = new GoalDTO();
         dto.setId(goal.getId());
         dto.setCategoryId(goal.getCategory().getId());
@@ -98,7 +91,7 @@ public class GoalService {
         dto.setAmount(goal.getAmount());
         dto.setStartDate(goal.getStartDate());
         dto.setEndDate(goal.getEndDate());
-        dto.setTotalCarbonFootprint(calculateTotalCarbonFootprint(goal.getCategory().getId(), goal.getStartDate(), goal.getEndDate())); // Set totalSpent
+        dto.setTotalCarbonFootprint(totalCarbonFootprints.getOrDefault(goal.getId(), 0.0)); // Set totalCarbonFootprint
         return dto;
     }
 }
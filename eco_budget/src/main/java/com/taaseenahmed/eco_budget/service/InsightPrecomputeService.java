@@ -0,0 +1,126 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.repository.AppUserRepository;
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Regenerates recommendations and benchmarks in the background, so the GET endpoints only ever read stored rows.
+// Users are picked up once their transactions have been quiet for the debounce period, a burst of edits costs one refresh.
+@Slf4j
+@Service
+public class InsightPrecomputeService {
+
+    private final AppUserRepository appUserRepository;
+    private final RecommendationService recommendationService;
+    private final BenchmarkService benchmarkService;
+    private final ChatGPTService chatGPTService;
+
+    private final boolean enabled;
+    private final int workers;
+    private final int queueCapacity;
+    private final long debounceMillis;
+
+    // Users currently queued or being refreshed, by the scan or by a streaming request
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor workerPool;
+
+    public InsightPrecomputeService(AppUserRepository appUserRepository,
+                                    RecommendationService recommendationService,
+                                    BenchmarkService benchmarkService,
+                                    ChatGPTService chatGPTService,
+                                    @Value("${insights.precompute.enabled:true}") boolean enabled,
+                                    @Value("${insights.precompute.workers:2}") int workers,
+                                    @Value("${insights.precompute.queue-capacity:50}") int queueCapacity,
+                                    @Value("${insights.precompute.debounce-ms:30000}") long debounceMillis) {
+        this.appUserRepository = appUserRepository;
+        this.recommendationService = recommendationService;
+        this.benchmarkService = benchmarkService;
+        this.chatGPTService = chatGPTService;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.debounceMillis = debounceMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("insight-precompute-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Queue users with results built from an older data version and whose last transaction change is older than the debounce period
+    @Scheduled(initialDelayString = "${insights.precompute.initial-delay-ms:15000}",
+            fixedDelayString = "${insights.precompute.interval-ms:15000}")
+    public void refreshStaleUsers() {
+        if (!enabled || workerPool.isShutdown() || !chatGPTService.isAvailable()) {
+            return; // Without ChatGPT the stored rows stay as they are and stay stale
+        }
+        int capacity = workerPool.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        LocalDateTime quietSince = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(debounceMillis));
+        List<Long> userIds = appUserRepository.findIdsWithStaleInsights(quietSince, PageRequest.of(0, capacity));
+        for (Long userId : userIds) {
+            if (!inFlight.add(userId)) {
+                continue; // Still being refreshed by an earlier scan or a streaming request
+            }
+            try {
+                workerPool.execute(() -> refresh(userId));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(userId);
+                break;
+            }
+        }
+    }
+
+    // Claim a user for a refresh started elsewhere (a streaming request); false if one is already running
+    public boolean tryStartRefresh(Long userId) {
+        return inFlight.add(userId);
+    }
+
+    public void finishRefresh(Long userId) {
+        inFlight.remove(userId);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Anything unfinished stays stale and is picked up after the next start
+        workerPool.shutdownNow();
+        workerPool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void refresh(Long userId) {
+        try {
+            Optional<AppUser> user = appUserRepository.findById(userId);
+            if (user.isEmpty()) {
+                return;
+            }
+            // Each refresh skips itself when its stored row is already current for the user's data version
+            recommendationService.refreshRecommendations(user.get());
+            benchmarkService.refreshBenchmarks(user.get());
+        } catch (Exception e) {
+            log.warn("Background refresh of recommendations and benchmarks failed for user {}", userId, e);
+        } finally {
+            inFlight.remove(userId);
+        }
+    }
+}
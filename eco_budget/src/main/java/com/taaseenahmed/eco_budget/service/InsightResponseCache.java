@@ -0,0 +1,143 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.CacheStatsDTO;
+import com.taaseenahmed.eco_budget.entity.InsightResponseCacheEntry;
+import com.taaseenahmed.eco_budget.repository.InsightResponseCacheRepository;
+import com.taaseenahmed.eco_budget.util.ExpiringLruCache;
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
+import com.taaseenahmed.eco_budget.util.PromptProfile;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Two-tier cache of recommendation and benchmark completions keyed by the hash of their canonical prompt,
+// so identical spending profiles reuse an earlier generation across users and over time. Entries expire after the TTL.
+// New completions go into memory on the completing thread; their rows are written by a single background writer.
+@Slf4j
+@Service
+public class InsightResponseCache {
+
+    private final InsightResponseCacheRepository repository;
+    private final ExpiringLruCache<String, String> memory;
+    private final long ttlMinutes;
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong persistentMisses = new AtomicLong();
+    private final ThreadPoolExecutor writer;
+
+    public InsightResponseCache(InsightResponseCacheRepository repository,
+                                @Value("${insights.response-cache.max-size:2000}") int maxSize,
+                                @Value("${insights.response-cache.ttl-minutes:10080}") long ttlMinutes,
+                                @Value("${insights.response-cache.write-queue-capacity:100}") int writeQueueCapacity) {
+        this.repository = repository;
+        this.memory = new ExpiringLruCache<>(maxSize, TimeUnit.MINUTES.toMillis(ttlMinutes));
+        this.ttlMinutes = ttlMinutes;
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity), new NamedThreadFactory("insight-response-cache-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // Completion previously generated for this exact prompt, or null
+    public String get(String prompt) {
+        String key = PromptProfile.hash(prompt);
+        String cached = memory.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<InsightResponseCacheEntry> stored = findPersisted(key);
+        if (stored.isPresent() && stored.get().getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(ttlMinutes))) {
+            persistentHits.incrementAndGet();
+            memory.put(key, stored.get().getCompletion());
+            return stored.get().getCompletion();
+        }
+        persistentMisses.incrementAndGet();
+        return null;
+    }
+
+    // Cached completion if there is one, otherwise the generator's, which is stored once it succeeds
+    public CompletableFuture<String> getOrGenerate(String prompt, Function<String, CompletableFuture<String>> generator) {
+        String cached = get(prompt);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return generator.apply(prompt).thenApply(completion -> {
+            put(prompt, completion);
+            return completion;
+        });
+    }
+
+    // Store a successful completion in memory and queue its row; failed prompts (null) are never cached.
+    // Never blocks, since it runs on whichever thread completed the generator's future.
+    public void put(String prompt, String completion) {
+        if (completion == null) {
+            return;
+        }
+        String key = PromptProfile.hash(prompt);
+        memory.put(key, completion);
+        LocalDateTime createdAt = LocalDateTime.now();
+        try {
+            writer.execute(() -> persist(key, completion, createdAt));
+        } catch (RejectedExecutionException e) {
+            log.debug("Insight response cache writer is busy, completion for key '{}' kept in memory only", key);
+        }
+    }
+
+    // Expired rows are never read, this only keeps the table small
+    @Scheduled(cron = "${insights.response-cache.purge-cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(ttlMinutes));
+        memory.purgeExpired();
+        if (deleted > 0) {
+            log.info("Purged {} expired insight completions", deleted);
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        return CacheStatsDTO.builder()
+                .name("insight-response")
+                .size(memory.size())
+                .maxSize(memory.getMaxSize())
+                .hits(memory.getHits())
+                .misses(memory.getMisses())
+                .evictions(memory.getEvictions())
+                .expirations(memory.getExpirations())
+                .persistentHits(persistentHits.get())
+                .persistentMisses(persistentMisses.get())
+                .build();
+    }
+
+    private void persist(String key, String completion, LocalDateTime createdAt) {
+        try {
+            repository.save(new InsightResponseCacheEntry(key, completion, createdAt));
+        } catch (DataAccessException e) {
+            log.debug("Could not persist insight completion for key '{}'", key, e);
+        }
+    }
+
+    private Optional<InsightResponseCacheEntry> findPersisted(String key) {
+        try {
+            return repository.findById(key);
+        } catch (DataAccessException e) {
+            log.warn("Insight response cache table unavailable, falling back to ChatGPT", e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.BenchmarkDTO;
+import com.taaseenahmed.eco_budget.dto.response.RecommendationDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.Benchmark;
+import com.taaseenahmed.eco_budget.entity.Recommendation;
+import com.taaseenahmed.eco_budget.util.NamedThreadFactory;
+import com.taaseenahmed.eco_budget.util.NumberedTips;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Server-sent event variants of the recommendation and benchmark endpoints.
+// When a refresh is due, the ChatGPT completion is streamed and each numbered tip is sent as a "tip" event as soon as the
+// next one starts; the final list is persisted when the stream ends and sent as a "done" event carrying the usual DTO.
+// Otherwise the stored tips are replayed straight away. The refresh is claimed like a background one, so the two never overlap.
+// Persistence and every event write run on the insight-stream- pool, never on the thread that produced the content.
+@Slf4j
+@Service
+public class InsightStreamService {
+
+    private final RecommendationService recommendationService;
+    private final BenchmarkService benchmarkService;
+    private final InsightPrecomputeService insightPrecomputeService;
+    private final ChatGPTService chatGPTService;
+    private final InsightResponseCache insightResponseCache;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor streamPool;
+
+    public InsightStreamService(RecommendationService recommendationService,
+                                BenchmarkService benchmarkService,
+                                InsightPrecomputeService insightPrecomputeService,
+                                ChatGPTService chatGPTService,
+                                InsightResponseCache insightResponseCache,
+                                @Value("${insights.stream.timeout-ms:120000}") long timeoutMillis,
+                                @Value("${insights.stream.threads:4}") int threads,
+                                @Value("${insights.stream.queue-capacity:100}") int queueCapacity) {
+        this.recommendationService = recommendationService;
+        this.benchmarkService = benchmarkService;
+        this.insightPrecomputeService = insightPrecomputeService;
+        this.chatGPTService = chatGPTService;
+        this.insightResponseCache = insightResponseCache;
+        this.timeoutMillis = timeoutMillis;
+        // Bounded; a stream whose work is rejected ends with an error and its refresh stays pending
+        this.streamPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("insight-stream-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        streamPool.shutdownNow();
+    }
+
+    public SseEmitter streamSpendingRecommendations(AppUser appUser) {
+        RecommendationDTO stored = recommendationService.createSpendingResponse(appUser);
+        List<String> storedTips = stored.getSpendingRecommendations();
+        return streamRecommendations(appUser, stored, storedTips, true);
+    }
+
+    public SseEmitter streamCarbonFootprintRecommendations(AppUser appUser) {
+        RecommendationDTO stored = recommendationService.createCarbonFootprintResponse(appUser);
+        List<String> storedTips = stored.getCarbonFootprintRecommendations();
+        return streamRecommendations(appUser, stored, storedTips, false);
+    }
+
+    public SseEmitter streamBenchmarks(AppUser appUser) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        BenchmarkDTO stored = benchmarkService.createBenchmarkResponse(appUser);
+        List<String> storedTips = stored.getBenchmarks();
+        if (!startRefresh(appUser, stored.isRefreshPending())) {
+            replay(emitter, storedTips, stored);
+            return emitter;
+        }
+
+        BenchmarkService.Prompt prompt;
+        boolean unchanged;
+        try {
+            prompt = benchmarkService.createPrompt(appUser);
+            unchanged = benchmarkService.confirmUnchanged(appUser, prompt);
+        } catch (RuntimeException e) {
+            insightPrecomputeService.finishRefresh(appUser.getId());
+            throw e;
+        }
+        if (unchanged) {
+            insightPrecomputeService.finishRefresh(appUser.getId());
+            stored.setRefreshPending(false);
+            replay(emitter, storedTips, stored);
+            return emitter;
+        }
+        EventSink sink = new EventSink(emitter, streamPool);
+        NumberedTips.Incremental tips = new NumberedTips.Incremental();
+        long started = System.nanoTime();
+        insightResponseCache.getOrGenerate(prompt.text(), streamedPrompt -> chatGPTService.streamCompletionAsync(LlmPurpose.BENCHMARK, streamedPrompt, content -> sink.tips(tips.append(content))))
+                .exceptionally(error -> null)
+                .thenApplyAsync(completion -> {
+                    if (completion != null) {
+                        sendRemainingTips(sink, tips, completion);
+                    }
+                    Benchmark saved = benchmarkService.saveRefresh(appUser, prompt, completion, elapsedMillis(started));
+                    return BenchmarkDTO.builder()
+                            .benchmarks(completion != null ? NumberedTips.parse(completion) : storedTips)
+                            .lastUpdated(completion != null && saved != null ? saved.getLastUpdated() : stored.getLastUpdated())
+                            .refreshPending(completion == null)
+                            .build();
+                }, streamPool)
+                .whenComplete((result, error) -> finish(appUser, sink, result, error));
+        return emitter;
+    }
+
+    // Streams one section while the other section's prompt runs alongside it, so the stored row is refreshed as a whole
+    private SseEmitter streamRecommendations(AppUser appUser, RecommendationDTO stored, List<String> storedTips, boolean spending) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (!startRefresh(appUser, stored.isRefreshPending())) {
+            replay(emitter, storedTips, withTips(stored, storedTips, spending));
+            return emitter;
+        }
+
+        RecommendationService.Prompts prompts;
+        boolean unchanged;
+        try {
+            prompts = recommendationService.createPrompts(appUser);
+            unchanged = recommendationService.confirmUnchanged(appUser, prompts);
+        } catch (RuntimeException e) {
+            insightPrecomputeService.finishRefresh(appUser.getId());
+            throw e;
+        }
+        if (unchanged) {
+            insightPrecomputeService.finishRefresh(appUser.getId());
+            stored.setRefreshPending(false);
+            replay(emitter, storedTips, withTips(stored, storedTips, spending));
+            return emitter;
+        }
+        EventSink sink = new EventSink(emitter, streamPool);
+        NumberedTips.Incremental tips = new NumberedTips.Incremental();
+        long started = System.nanoTime();
+        CompletableFuture<String> streamed = insightResponseCache
+                .getOrGenerate(spending ? prompts.spending() : prompts.carbonFootprint(),
+                        streamedPrompt -> chatGPTService.streamCompletionAsync(LlmPurpose.RECOMMENDATION, streamedPrompt, content -> sink.tips(tips.append(content))))
+                .exceptionally(error -> null);
+        CompletableFuture<String> other = insightResponseCache
+                .getOrGenerate(spending ? prompts.carbonFootprint() : prompts.spending(), recommendationService::submitPrompt);
+
+        streamed.thenCombineAsync(other, (streamedCompletion, otherCompletion) -> {
+                    if (streamedCompletion != null) {
+                        sendRemainingTips(sink, tips, streamedCompletion);
+                    }
+                    Recommendation saved = spending
+                            ? recommendationService.saveRefresh(appUser, prompts, streamedCompletion, otherCompletion, elapsedMillis(started))
+                            : recommendationService.saveRefresh(appUser, prompts, otherCompletion, streamedCompletion, elapsedMillis(started));
+                    List<String> finalTips = streamedCompletion != null ? NumberedTips.parse(streamedCompletion) : storedTips;
+                    RecommendationDTO result = withTips(new RecommendationDTO(), finalTips, spending);
+                    result.setLastUpdated(saved != null ? saved.getLastUpdated() : stored.getLastUpdated());
+                    result.setRefreshPending(streamedCompletion == null || otherCompletion == null);
+                    return result;
+                }, streamPool)
+                .whenComplete((result, error) -> finish(appUser, sink, result, error));
+        return emitter;
+    }
+
+    // Only one refresh per user at a time; while the background scan holds the user, the stored tips are replayed
+    private boolean startRefresh(AppUser appUser, boolean refreshPending) {
+        return refreshPending && chatGPTService.isAvailable() && insightPrecomputeService.tryStartRefresh(appUser.getId());
+    }
+
+    private void finish(AppUser appUser, EventSink sink, Object result, Throwable error) {
+        insightPrecomputeService.finishRefresh(appUser.getId());
+        if (error != null) {
+            log.warn("Streaming refresh failed for user {}", appUser.getEmail(), error);
+            sink.fail(error);
+            return;
+        }
+        sink.done(result);
+    }
+
+    // A cached completion never went through the stream, so all of its tips are sent now
+    private static void sendRemainingTips(EventSink sink, NumberedTips.Incremental tips, String completion) {
+        if (tips.getText().isEmpty()) {
+            sink.tips(tips.append(completion));
+        }
+        sink.tips(tips.finish());
+    }
+
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private void replay(SseEmitter emitter, List<String> tips, Object result) {
+        EventSink sink = new EventSink(emitter, streamPool);
+        sink.tips(tips);
+        sink.done(result);
+    }
+
+    private static RecommendationDTO withTips(RecommendationDTO dto, List<String> tips, boolean spending) {
+        if (spending) {
+            dto.setSpendingRecommendations(tips);
+        } else {
+            dto.setCarbonFootprintRecommendations(tips);
+        }
+        return dto;
+    }
+
+    // Queues events from whichever thread produces them and writes them one at a time, in order, on the stream pool,
+    // so a producer never blocks on the client's connection. Once the client has gone, later events are dropped quietly.
+    private static final class EventSink {
+
+        private final SseEmitter emitter;
+        private final Executor executor;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private CompletableFuture<Void> writes = CompletableFuture.completedFuture(null);
+
+        private EventSink(SseEmitter emitter, Executor executor) {
+            this.emitter = emitter;
+            this.executor = executor;
+            emitter.onTimeout(() -> open.set(false));
+            emitter.onError(error -> open.set(false));
+        }
+
+        void tips(List<String> tips) {
+            if (tips.isEmpty()) {
+                return;
+            }
+            enqueue(() -> {
+                for (String tip : tips) {
+                    send(SseEmitter.event().name("tip").data(tip));
+                }
+            });
+        }
+
+        void done(Object result) {
+            enqueue(() -> {
+                send(SseEmitter.event().name("done").data(result));
+                if (open.compareAndSet(true, false)) {
+                    emitter.complete();
+                }
+            });
+        }
+
+        void fail(Throwable error) {
+            if (open.compareAndSet(true, false)) {
+                emitter.completeWithError(error);
+            }
+        }
+
+        // Each write starts once the previous one has finished; if the pool refuses one, the stream ends instead of hanging
+        private synchronized void enqueue(Runnable write) {
+            writes = writes.thenRunAsync(write, executor).exceptionally(error -> {
+                fail(error);
+                return null;
+            });
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            if (!open.get()) {
+                return;
+            }
+            try {
+                emitter.send(event);
+            } catch (Exception e) {
+                open.set(false); // Client disconnected or timed out; generation carries on and is still persisted
+            }
+        }
+    }
+}
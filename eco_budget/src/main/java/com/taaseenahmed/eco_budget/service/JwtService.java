@@ -1,17 +1,26 @@
 package com.taaseenahmed.eco_budget.service;
 
+import com.taaseenahmed.eco_budget.dto.response.CacheStatsDTO;
+import com.taaseenahmed.eco_budget.util.ExpiringLruCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -19,6 +28,17 @@ public class JwtService {
 
     private static final String SECRET_KEY = "cf2455bc8d76a0d8ef57602ec13254ea5ea1e572ed62694db87cc616c7d2faf3"; // Secret key used to sign JWTs.
 
+    private final Key signInKey = getSignInKey(); // Decoded once, the secret never changes at runtime.
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signInKey).build(); // Thread-safe, shared by all requests.
+
+    // Claims of tokens whose signature has already been checked, keyed by token hash and dropped at token expiry.
+    private final ExpiringLruCache<String, Claims> verifiedTokens;
+
+    public JwtService(@Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheSize,
+                      @Value("${jwt.verified-cache.ttl-minutes:60}") long verifiedCacheTtlMinutes) {
+        this.verifiedTokens = new ExpiringLruCache<>(verifiedCacheSize, TimeUnit.MINUTES.toMillis(verifiedCacheTtlMinutes));
+    }
+
     // Extracts the username (subject) from the JWT token.
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject); // Claims::getSubject extracts the subject (username).
@@ -43,38 +63,72 @@ public class JwtService {
                 .setSubject(userDetails.getUsername()) // Set the subject as the username.
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Set issue date to current time.
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 24)) // Set expiration to 24 hours from now.
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256) // Sign the JWT with HMAC SHA-256 algorithm.
+                .signWith(signInKey, SignatureAlgorithm.HS256) // Sign the JWT with HMAC SHA-256 algorithm.
                 .compact(); // Generate and return the compact JWT string.
     }
 
+    // Verifies the token's signature and expiry once and returns its claims; throws JwtException when invalid.
+    // Repeat calls with the same token are served from the verified-token cache without another HMAC.
+    public Claims verify(String token) {
+        String key = hashToken(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody(); // Throws on a bad signature or an expired token.
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims, claims.getExpiration().getTime());
+        }
+        return claims;
+    }
+
     // Validates if the JWT token is still valid based on the username and expiration.
     public boolean isTokenValid(String token, UserDetails userDetails){
-        final String username = extractUsername(token); // Extract username from the token.
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token)); // Ensure username matches and token is not expired.
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    // Checks if the token has expired.
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date()); // Compare expiration date with the current time.
+    // Same check against claims the caller has already verified, so the token is not parsed again.
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject(); // Username the token was issued to.
+        return (username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(claims)); // Ensure username matches and token is not expired.
+    }
+
+    // Hit/miss/eviction counters for the verified-token cache.
+    public CacheStatsDTO getVerifiedTokenCacheStats() {
+        return CacheStatsDTO.builder()
+                .name("jwt-verified-tokens")
+                .size(verifiedTokens.size())
+                .maxSize(verifiedTokens.getMaxSize())
+                .hits(verifiedTokens.getHits())
+                .misses(verifiedTokens.getMisses())
+                .evictions(verifiedTokens.getEvictions())
+                .expirations(verifiedTokens.getExpirations())
+                .build();
     }
 
-    // Extracts the expiration date from the token.
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration); // Use Claims::getExpiration to extract the expiration date.
+    // Checks if the token has expired.
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date()); // Compare expiration date with the current time.
     }
 
     // Extracts all claims from the JWT token.
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey()) // Set the signing key for decoding the token.
-                .build()
-                .parseClaimsJws(token) // Parse the JWT token and extract the claims.
-                .getBody(); // Get the body of the claims.
+        return verify(token);
+    }
+
+    // The cache is keyed by a digest so raw bearer tokens are not held in memory longer than needed.
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     // Retrieves the signing key used for signing and verifying the JWT.
-    private Key getSignInKey() {
+    private static Key getSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY); // Decode the base64 encoded secret key.
         return Keys.hmacShaKeyFor(keyBytes); // Create a HMAC key for SHA algorithm from the decoded secret key.
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.LlmResilienceStatsDTO;
+import com.taaseenahmed.eco_budget.exception.LlmUnavailableException;
+import com.taaseenahmed.eco_budget.util.CircuitBreaker;
+import com.taaseenahmed.eco_budget.util.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Resilience layer around every ChatGPT call: a circuit breaker, a token-bucket rate limiter and a concurrency bulkhead.
+// Refused calls fail immediately with LlmUnavailableException so callers drop to their fallbacks without waiting.
+@Slf4j
+@Service
+public class LlmGuard {
+
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucket rateLimiter;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+
+    private final AtomicLong successfulCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong rejectedByCircuitBreaker = new AtomicLong();
+    private final AtomicLong rejectedByRateLimiter = new AtomicLong();
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+
+    public LlmGuard(@Value("${llm.resilience.max-concurrent-calls:16}") int maxConcurrentCalls,
+                    @Value("${llm.resilience.rate-limit.permits-per-second:5}") double permitsPerSecond,
+                    @Value("${llm.resilience.rate-limit.burst:10}") int burst,
+                    @Value("${llm.resilience.circuit.sliding-window:20}") int slidingWindow,
+                    @Value("${llm.resilience.circuit.minimum-calls:10}") int minimumCalls,
+                    @Value("${llm.resilience.circuit.failure-rate-threshold:50}") double failureRateThreshold,
+                    @Value("${llm.resilience.circuit.open-duration-ms:30000}") long openDurationMillis,
+                    @Value("${llm.resilience.circuit.half-open-probes:2}") int halfOpenProbes) {
+        this.circuitBreaker = new CircuitBreaker(slidingWindow, minimumCalls, failureRateThreshold, openDurationMillis, halfOpenProbes);
+        this.rateLimiter = new TokenBucket(permitsPerSecond, burst);
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    // Whether the circuit would let a call through right now; lets callers skip work whose only purpose is an LLM call
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    // Run the call if every guard admits it, recording the outcome on the breaker when it completes
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        if (!circuitBreaker.isCallPermitted()) {
+            return reject(rejectedByCircuitBreaker, "ChatGPT circuit breaker is open");
+        }
+        if (!rateLimiter.tryAcquire()) {
+            return reject(rejectedByRateLimiter, "ChatGPT client-side rate limit reached");
+        }
+        if (!bulkhead.tryAcquire()) {
+            return reject(rejectedByBulkhead, "Too many concurrent ChatGPT calls");
+        }
+        if (!circuitBreaker.tryAcquire()) { // Half-open probe slots may have been taken meanwhile
+            bulkhead.release();
+            return reject(rejectedByCircuitBreaker, "ChatGPT circuit breaker is open");
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> {
+            bulkhead.release();
+            if (error == null) {
+                successfulCalls.incrementAndGet();
+                circuitBreaker.onSuccess();
+            } else {
+                failedCalls.incrementAndGet();
+                CircuitBreaker.State before = circuitBreaker.getState();
+                circuitBreaker.onFailure();
+                if (before != CircuitBreaker.State.OPEN && circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+                    log.warn("ChatGPT circuit breaker opened after repeated failures");
+                }
+            }
+        });
+    }
+
+    public LlmResilienceStatsDTO getStats() {
+        return LlmResilienceStatsDTO.builder()
+                .circuitState(circuitBreaker.getState().name())
+                .failureRate(circuitBreaker.getFailureRate())
+                .bufferedCalls(circuitBreaker.getBufferedCalls())
+                .availableConcurrentCalls(Math.min(bulkhead.availablePermits(), maxConcurrentCalls))
+                .availableRateLimitTokens(rateLimiter.getAvailableTokens())
+                .successfulCalls(successfulCalls.get())
+                .failedCalls(failedCalls.get())
+                .rejectedByCircuitBreaker(rejectedByCircuitBreaker.get())
+                .rejectedByRateLimiter(rejectedByRateLimiter.get())
+                .rejectedByBulkhead(rejectedByBulkhead.get())
+                .build();
+    }
+
+    private static <T> CompletableFuture<T> reject(AtomicLong counter, String reason) {
+        counter.incrementAndGet();
+        return CompletableFuture.failedFuture(new LlmUnavailableException(reason));
+    }
+}
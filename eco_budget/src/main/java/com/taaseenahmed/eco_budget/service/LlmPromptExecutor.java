@@ -0,0 +1,54 @@
+package com.taaseenahmed.eco_budget.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+// Runs independent ChatGPT prompts concurrently, so a caller pays for the slowest prompt instead of the sum.
+// Prompts go out on the non-blocking client; a permit count bounds how many are in flight at once.
+@Slf4j
+@Service
+public class LlmPromptExecutor {
+
+    private final ChatGPTService chatGPTService;
+    private final Semaphore permits;
+
+    public LlmPromptExecutor(ChatGPTService chatGPTService,
+                             @Value("${llm.prompt-executor.max-concurrent:8}") int maxConcurrent) {
+        this.chatGPTService = chatGPTService;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    // Start a prompt; the future completes with the completion text, or null if ChatGPT failed or too many prompts are in flight
+    public CompletableFuture<String> submit(LlmPurpose purpose, String prompt) {
+        if (!permits.tryAcquire()) {
+            log.warn("Too many LLM prompts in flight, prompt skipped");
+            return CompletableFuture.completedFuture(null);
+        }
+        return chatGPTService.getCompletionAsync(purpose, prompt)
+                .whenComplete((completion, error) -> permits.release());
+    }
+
+    // False while ChatGPT's circuit breaker is open
+    public boolean isAvailable() {
+        return chatGPTService.isAvailable();
+    }
+
+    // Wait for a prompt until the shared deadline (System.nanoTime based); null on timeout or failure
+    public String await(CompletableFuture<String> completion, long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+        try {
+            return completion.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            completion.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+}
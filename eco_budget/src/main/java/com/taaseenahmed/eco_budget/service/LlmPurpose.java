@@ -0,0 +1,14 @@
+package com.taaseenahmed.eco_budget.service;
+
+import java.util.Locale;
+
+// What a ChatGPT call is for; tags the chatgpt.requests timer so latency and failures can be split by feature.
+public enum LlmPurpose {
+    MULTIPLIER,
+    RECOMMENDATION,
+    BENCHMARK;
+
+    String tagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
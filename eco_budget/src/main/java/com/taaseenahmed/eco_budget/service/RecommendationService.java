@@ -1,162 +1,236 @@
 package com.taaseenahmed.eco_budget.service;
 
 import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.GenerationMetadata;
 import com.taaseenahmed.eco_budget.entity.Recommendation;
+import com.taaseenahmed.eco_budget.entity.RecommendationDocument;
 import com.taaseenahmed.eco_budget.dto.response.RecommendationDTO;
 import com.taaseenahmed.eco_budget.repository.AppUserRepository;
 import com.taaseenahmed.eco_budget.entity.Transaction;
 import com.taaseenahmed.eco_budget.repository.RecommendationRepository;
 import com.taaseenahmed.eco_budget.repository.TransactionRepository;
-import lombok.AllArgsConstructor;
+import com.taaseenahmed.eco_budget.util.NumberedTips;
+import com.taaseenahmed.eco_budget.util.PromptProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
-@AllArgsConstructor
 public class RecommendationService {
 
+    private static final int MAX_PROMPT_TRANSACTIONS = 11;
+
+    private final LlmPromptExecutor llmPromptExecutor;
     private final ChatGPTService chatGPTService;
     private final TransactionRepository transactionRepository;
     private final RecommendationRepository recommendationRepository;
     private final AppUserRepository appUserRepository;
+    private final InsightResponseCache insightResponseCache;
+    private final long refreshDeadlineMillis;
+
+    public RecommendationService(LlmPromptExecutor llmPromptExecutor,
+                                 ChatGPTService chatGPTService,
+                                 TransactionRepository transactionRepository,
+                                 RecommendationRepository recommendationRepository,
+                                 AppUserRepository appUserRepository,
+                                 InsightResponseCache insightResponseCache,
+                                 @Value("${recommendation.refresh-deadline-ms:45000}") long refreshDeadlineMillis) {
+        this.llmPromptExecutor = llmPromptExecutor;
+        this.chatGPTService = chatGPTService;
+        this.transactionRepository = transactionRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.appUserRepository = appUserRepository;
+        this.insightResponseCache = insightResponseCache;
+        this.refreshDeadlineMillis = refreshDeadlineMillis;
+    }
 
-    public RecommendationDTO createSpendingResponse(String email) {
-        Recommendation recommendation = getRecommendationsForUser(email);
+    // Served from the stored row only; regeneration happens in the background (see InsightPrecomputeService)
+    public RecommendationDTO createSpendingResponse(AppUser appUser) {
+        Recommendation recommendation = recommendationRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
         return RecommendationDTO.builder()
-                .spendingRecommendations(recommendation.getSpendingRecommendations())
+                .spendingRecommendations(recommendation != null ? recommendation.getSpendingRecommendations() : List.of())
+                .lastUpdated(recommendation != null ? recommendation.getLastUpdated() : null)
+                .refreshPending(isRefreshPending(appUser, recommendation))
                 .build();
     }
 
-    public RecommendationDTO createCarbonFootprintResponse(String email) {
-        Recommendation recommendation = getRecommendationsForUser(email);
+    public RecommendationDTO createCarbonFootprintResponse(AppUser appUser) {
+        Recommendation recommendation = recommendationRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
         return RecommendationDTO.builder()
-                .carbonFootprintRecommendations(recommendation.getCarbonFootprintRecommendations())
+                .carbonFootprintRecommendations(recommendation != null ? recommendation.getCarbonFootprintRecommendations() : List.of())
+                .lastUpdated(recommendation != null ? recommendation.getLastUpdated() : null)
+                .refreshPending(isRefreshPending(appUser, recommendation))
                 .build();
     }
 
-    public Recommendation getRecommendationsForUser(String email) {
-        AppUser appUser = appUserRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    // Regenerate both sections from the last month of transactions; called by the background precomputation
+    public Recommendation refreshRecommendations(AppUser appUser) {
+        Recommendation stored = recommendationRepository.findByAppUserEmail(appUser.getEmail()).orElse(null);
+        long dataVersion = appUserRepository.findDataVersion(appUser.getId());
+        if (stored != null && stored.isCurrentFor(dataVersion)) {
+            return stored; // Only the benchmarks were stale
+        }
+        Prompts prompts = createPrompts(appUser, dataVersion);
+        if (confirmUnchanged(stored, prompts)) {
+            return stored;
+        }
 
-        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
-        List<Transaction> transactions = transactionRepository.findByAppUserIdAndDateAfter(appUser.getId(), oneMonthAgo);
+        log.info("Fetching new recommendations for user: {}", appUser.getEmail());
+
+        // Both prompts run concurrently against one deadline, so a refresh costs the slower of the two.
+        // A prompt identical to an earlier one (same canonical profile) reuses that completion instead.
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(refreshDeadlineMillis);
+        CompletableFuture<String> spendingCompletion = insightResponseCache.getOrGenerate(prompts.spending(), this::submitPrompt);
+        CompletableFuture<String> carbonFootprintCompletion = insightResponseCache.getOrGenerate(prompts.carbonFootprint(), this::submitPrompt);
+        String spending = llmPromptExecutor.await(spendingCompletion, deadline);
+        String carbonFootprint = llmPromptExecutor.await(carbonFootprintCompletion, deadline);
+        return saveRefresh(appUser, prompts, spending, carbonFootprint, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
 
-        Recommendation recommendation = recommendationRepository.findByAppUserEmail(email).orElse(null);
+    // Recommendation prompts go through the shared executor, which bounds how many are in flight
+    public CompletableFuture<String> submitPrompt(String prompt) {
+        return llmPromptExecutor.submit(LlmPurpose.RECOMMENDATION, prompt);
+    }
 
-        boolean shouldRefreshRecommendations = recommendation == null || appUser.isTransactionsUpdatedForRecommendations();
+    // Both prompts, built from the user's last month of transactions
+    public Prompts createPrompts(AppUser appUser) {
+        return createPrompts(appUser, appUserRepository.findDataVersion(appUser.getId()));
+    }
 
-        if (!shouldRefreshRecommendations) {
-            System.out.println("Using existing recommendations for user: " + email);
-            return recommendation;
-        }
+    // The version is read before the transactions, so a write landing in between leaves the result stale rather than lost
+    private Prompts createPrompts(AppUser appUser, long dataVersion) {
+        LocalDateTime oneMonthAgo = LocalDateTime.now().minusMonths(1);
+        List<Transaction> transactions = transactionRepository.findByAppUserIdAndDateAfter(appUser.getId(), oneMonthAgo);
+        return new Prompts(createSpendingPrompt(transactions), createCarbonFootprintPrompt(transactions), dataVersion);
+    }
 
-        System.out.println("Fetching new recommendations for user: " + email);
+    // When the canonical prompts match the ones the stored row was built from, the version bump was not a material change
+    // (a small edit, or one outside the transactions sent to ChatGPT): the row is stamped current and nothing is regenerated
+    public boolean confirmUnchanged(AppUser appUser, Prompts prompts) {
+        return confirmUnchanged(recommendationRepository.findByAppUserEmail(appUser.getEmail()).orElse(null), prompts);
+    }
 
-        String spendingPrompt = createSpendingPrompt(transactions);
-        String carbonFootprintPrompt = createCarbonFootprintPrompt(transactions);
+    private boolean confirmUnchanged(Recommendation stored, Prompts prompts) {
+        if (stored == null || !prompts.hash().equals(stored.getSourceHash())) {
+            return false;
+        }
+        recommendationRepository.updateSourceVersion(stored.getId(), prompts.dataVersion());
+        log.info("Recommendations for user {} unchanged at data version {}", stored.getAppUser().getId(), prompts.dataVersion());
+        return true;
+    }
 
-        String spendingRecommendation = chatGPTService.getRecommendation(spendingPrompt);
-        String carbonFootprintRecommendation = chatGPTService.getRecommendation(carbonFootprintPrompt);
+    // Store the completions of a refresh; a null completion means that section's prompt failed
+    public Recommendation saveRefresh(AppUser appUser, Prompts prompts, String spendingRecommendation, String carbonFootprintRecommendation,
+                                      long latencyMillis) {
+        String email = appUser.getEmail();
+        Recommendation recommendation = recommendationRepository.findByAppUserEmail(email).orElse(null);
 
         if (recommendation == null) {
             recommendation = new Recommendation(appUser);
-        } else {
-            recommendation.getSpendingRecommendations().clear();
-            recommendation.getCarbonFootprintRecommendations().clear();
         }
 
-        recommendation.setSpendingRecommendations(parseRecommendations(spendingRecommendation));
-        recommendation.setCarbonFootprintRecommendations(parseRecommendations(carbonFootprintRecommendation));
+        // A section whose prompt failed or missed the deadline keeps its previous tips. The document is replaced as a whole,
+        // so the row is written with one UPDATE of its JSONB column.
+        RecommendationDocument previous = recommendation.getDocument();
+        RecommendationDocument document = RecommendationDocument.builder()
+                .spendingRecommendations(previous != null ? previous.getSpendingRecommendations() : List.of())
+                .carbonFootprintRecommendations(previous != null ? previous.getCarbonFootprintRecommendations() : List.of())
+                .generation(previous != null ? previous.getGeneration() : null)
+                .build();
+        if (spendingRecommendation != null) {
+            document.setSpendingRecommendations(NumberedTips.parse(spendingRecommendation));
+        } else {
+            log.warn("Spending recommendations for user {} not refreshed, keeping the previous ones", email);
+        }
+        if (carbonFootprintRecommendation != null) {
+            document.setCarbonFootprintRecommendations(NumberedTips.parse(carbonFootprintRecommendation));
+        } else {
+            log.warn("Carbon footprint recommendations for user {} not refreshed, keeping the previous ones", email);
+        }
         recommendation.setLastUpdated(LocalDateTime.now());
 
-        appUser.setTransactionsUpdatedForRecommendations(false);
-        appUserRepository.save(appUser);
+        // Only a complete refresh records the version, otherwise the next scan tries the missing section again
+        if (spendingRecommendation != null && carbonFootprintRecommendation != null) {
+            document.setGeneration(GenerationMetadata.builder()
+                    .model(chatGPTService.getModel())
+                    .promptHash(prompts.hash())
+                    .latencyMs(latencyMillis)
+                    .dataVersion(prompts.dataVersion())
+                    .build());
+            recommendation.setSourceVersion(prompts.dataVersion());
+            recommendation.setSourceHash(prompts.hash());
+        }
+        recommendation.setDocument(document);
 
         return recommendationRepository.save(recommendation);
     }
 
-    private List<String> parseRecommendations(String recommendationText) {
-        List<String> recommendations = new ArrayList<>();
-
-        // Use regex to capture numbered recommendations, handling potential formatting issues
-        String[] tips = recommendationText.split("(?m)^\\d+\\.\\s");
-
-        for (String tip : tips) {
-            String trimmedTip = tip.trim();
-            if (!trimmedTip.isEmpty() && trimmedTip.length() >= 5) {
-                // Remove any leading or trailing special characters
-                trimmedTip = trimmedTip.replaceAll("^\\*+|\\*+$", "").trim();
-                // Remove '**' that comes after the title
-                trimmedTip = trimmedTip.replaceAll("\\*\\*$", "").replaceAll("\\*\\*:", ":").trim();
-                // Exclude the introductory sentence
-                if (!trimmedTip.startsWith("Based on your transaction data")) {
-                    recommendations.add(trimmedTip);
-                }
-            }
+    // A user with nothing stored and no changes yet gets a version bump, so the next background scan generates a first set
+    private boolean isRefreshPending(AppUser appUser, Recommendation recommendation) {
+        long dataVersion = appUserRepository.findDataVersion(appUser.getId());
+        if (recommendation == null && dataVersion == 0) {
+            appUserRepository.requestInsightsRefresh(appUser.getId());
+            return true;
         }
+        return recommendation == null || !recommendation.isCurrentFor(dataVersion);
+    }
+
+    // The data version the prompts were built from travels with them to the stored row
+    public record Prompts(String spending, String carbonFootprint, long dataVersion) {
 
-        return recommendations;
+        public String hash() {
+            return PromptProfile.hash(spending + "\n" + carbonFootprint);
+        }
     }
 
-    private String createSpendingPrompt(List<Transaction> transactions) {
+    // Package-private and static so the JMH benchmarks can call the prompt builders without a Spring context
+    static String createSpendingPrompt(List<Transaction> transactions) {
         StringBuilder prompt = new StringBuilder("Analyze the following transaction data and provide 4-5 personalized spending recommendations. "
                 + "Each recommendation should be concise and start with a number followed by a period. "
                 + "Here are the transaction details in JSON format:\n");
 
         prompt.append("[");
-        int count = 0;
-
-        for (Transaction transaction : transactions) {
-            if (count > 10) break; // Limit the number of transactions to prevent prompt bloat
-            prompt.append(String.format("{\"category\":\"%s\", \"amount\":%.2f, \"description\":\"%s\"}, ",
-                    transaction.getCategory(),
-                    transaction.getAmount(),
-                    truncateDescription(transaction.getDescription())
-            ));
-            count++;
-        }
-
-        if (prompt.charAt(prompt.length() - 2) == ',') {
-            prompt.delete(prompt.length() - 2, prompt.length()); // Remove trailing comma
-        }
-
+        prompt.append(String.join(", ", canonicalLines(transactions, transaction -> transaction.getAmount().doubleValue(), "amount")));
         prompt.append("]");
         prompt.append("\nPlease provide actionable recommendations based on spending patterns.");
         return prompt.toString();
     }
 
-    private String truncateDescription(String description) {
-        if (description == null) return "No description";
-        return description.length() > 50 ? description.substring(0, 50) + "..." : description;
-    }
-
-    private String createCarbonFootprintPrompt(List<Transaction> transactions) {
+    static String createCarbonFootprintPrompt(List<Transaction> transactions) {
         StringBuilder prompt = new StringBuilder("Analyze the following transaction data and provide 4-5 personalized recommendations for reducing carbon footprint. "
                 + "Recommendations should start with a number followed by a period. "
                 + "Here are the transaction details in JSON format:\n");
 
         prompt.append("[");
-        int count = 0;
-
-        for (Transaction transaction : transactions) {
-            if (count > 10) break;
-            prompt.append(String.format("{\"category\":\"%s\", \"carbonFootprint\":%.2f, \"description\":\"%s\"}, ",
-                    transaction.getCategory(),
-                    transaction.getCarbonFootprint(),
-                    truncateDescription(transaction.getDescription())
-            ));
-            count++;
-        }
-
-        if (prompt.charAt(prompt.length() - 2) == ',') {
-            prompt.delete(prompt.length() - 2, prompt.length());
-        }
-
+        prompt.append(String.join(", ", canonicalLines(transactions,
+                transaction -> transaction.getCarbonFootprint() != null ? transaction.getCarbonFootprint() : 0.0, "carbonFootprint")));
         prompt.append("]");
         prompt.append("\nPlease provide actionable tips based on the carbon footprint patterns. Give a response in the context of the UK and Europe.");
         return prompt.toString();
     }
+
+    // The largest transactions by the given value, quantized and normalized, in a stable order (by category first),
+    // so the prompt text and therefore its cache key depend only on the spending profile
+    private static List<String> canonicalLines(List<Transaction> transactions, ToDoubleFunction<Transaction> value, String valueName) {
+        return transactions.stream()
+                .sorted(Comparator.comparingDouble(value).reversed().thenComparing(Transaction::getId))
+                .limit(MAX_PROMPT_TRANSACTIONS) // Limit the number of transactions to prevent prompt bloat
+                .map(transaction -> String.format("{\"category\":%s, \"%s\":%s, \"description\":%s}",
+                        PromptProfile.quote(transaction.getCategory().getName()),
+                        valueName,
+                        PromptProfile.format(value.applyAsDouble(transaction)),
+                        PromptProfile.quote(PromptProfile.normalizeDescription(transaction.getDescription()))))
+                .sorted()
+                .collect(Collectors.toList());
+    }
 }
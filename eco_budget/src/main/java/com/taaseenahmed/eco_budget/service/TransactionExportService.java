@@ -0,0 +1,220 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Streams a user's transactions as CSV or NDJSON straight from a forward-only database cursor.
+// Rows are selected as scalars (no entities, no DTOs) and written as they arrive, so memory use does not grow with history size.
+@Service
+public class TransactionExportService {
+
+    // Exportable columns, in default order, mapped to the JPQL expression that produces them
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "t.id");
+        COLUMNS.put("date", "t.date");
+        COLUMNS.put("type", "t.type");
+        COLUMNS.put("amount", "t.amount");
+        COLUMNS.put("category", "c.name");
+        COLUMNS.put("description", "t.description");
+        COLUMNS.put("carbonFootprint", "t.carbonFootprint");
+        COLUMNS.put("carbonMultiplierUsed", "t.carbonMultiplierUsed");
+        COLUMNS.put("isChatGPTDerivedCarbonFootprint", "t.isChatGPTDerivedCarbonFootprint");
+        COLUMNS.put("carbonFootprintSource", "t.carbonFootprintSource");
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+
+    public TransactionExportService(EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${transaction.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    // Validate the request on the calling thread and return a body that streams the rows when the response is written
+    public StreamingResponseBody export(AppUser user, String format, LocalDateTime from, LocalDateTime to,
+                                        List<String> requestedColumns, boolean gzip) {
+        String normalizedFormat = format.toLowerCase(Locale.ROOT);
+        if (!normalizedFormat.equals("csv") && !normalizedFormat.equals("ndjson")) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        List<String> columns = resolveColumns(requestedColumns);
+        String jpql = buildQuery(columns, from, to);
+        Long userId = user.getId();
+
+        return outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try {
+                        streamRows(writer, normalizedFormat, columns, jpql, userId, from, to);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+    }
+
+    public static List<String> supportedColumns() {
+        return new ArrayList<>(COLUMNS.keySet());
+    }
+
+    private List<String> resolveColumns(List<String> requestedColumns) {
+        if (requestedColumns == null || requestedColumns.isEmpty()) {
+            return supportedColumns();
+        }
+        for (String column : requestedColumns) {
+            if (!COLUMNS.containsKey(column)) {
+                throw new IllegalArgumentException("Unknown export column: " + column);
+            }
+        }
+        return requestedColumns;
+    }
+
+    private String buildQuery(List<String> columns, LocalDateTime from, LocalDateTime to) {
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                jpql.append(", ");
+            }
+            jpql.append(COLUMNS.get(columns.get(i)));
+        }
+        jpql.append(" FROM Transaction t JOIN t.category c WHERE t.appUser.id = :userId");
+        if (from != null) {
+            jpql.append(" AND t.date >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND t.date <= :to");
+        }
+        jpql.append(" ORDER BY t.date, t.id");
+        return jpql.toString();
+    }
+
+    private void streamRows(Writer writer, String format, List<String> columns, String jpql,
+                            Long userId, LocalDateTime from, LocalDateTime to) throws IOException {
+        SelectionQuery<Object[]> query = entityManager.unwrap(Session.class).createSelectionQuery(jpql, Object[].class);
+        query.setParameter("userId", userId);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        query.setReadOnly(true);
+        query.setFetchSize(fetchSize);
+
+        JsonGenerator json = format.equals("ndjson") ? jsonFactory.createGenerator(writer) : null;
+        if (json != null) {
+            // Rows are separated by newlines and the buffered writer decides when to flush
+            json.setRootValueSeparator(null);
+            json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        try (ScrollableResults<Object[]> rows = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Object[] row = toArray(rows.get());
+                if (json != null) {
+                    writeJsonRow(json, columns, row);
+                    json.writeRaw('\n');
+                } else {
+                    writeCsvRow(writer, row);
+                }
+            }
+        }
+        if (json != null) {
+            json.flush();
+        }
+    }
+
+    // A single selected column comes back as a bare value rather than an array
+    private Object[] toArray(Object result) {
+        return result instanceof Object[] array ? array : new Object[]{result};
+    }
+
+    private void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(row[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private void writeJsonRow(JsonGenerator json, List<String> columns, Object[] row) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            json.writeFieldName(columns.get(i));
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Number number) {
+                json.writeNumber(number.toString());
+            } else if (value instanceof Boolean bool) {
+                json.writeBoolean(bool);
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,321 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.TransactionImportResultDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus;
+import com.taaseenahmed.eco_budget.entity.CarbonFootprintSource;
+import com.taaseenahmed.eco_budget.entity.Category;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.importer.CsvTransactionFileReader;
+import com.taaseenahmed.eco_budget.importer.ImportedRow;
+import com.taaseenahmed.eco_budget.importer.OfxTransactionFileReader;
+import com.taaseenahmed.eco_budget.importer.TransactionFileReader;
+import com.taaseenahmed.eco_budget.repository.AppUserRepository;
+import com.taaseenahmed.eco_budget.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Streams CSV/OFX bank exports into the transaction table in JDBC batches.
+// Rows are parsed one at a time and each batch is committed and cleared, so memory stays flat for any file size.
+// Descriptions known to the offline emission-factor table are scored on the spot; other rows start from the category
+// multiplier, and those with a description are left PENDING for the enrichment sweeper.
+@Slf4j
+@Service
+public class TransactionImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_DESCRIPTION_LENGTH = 255; // Transaction.description is a default varchar(255)
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("d/M/yyyy"));
+    private static final Pattern CURRENCY_NOISE = Pattern.compile("[\\p{Sc},\\s]");
+
+    private final AppUserRepository appUserRepository;
+    private final AppUserCache appUserCache;
+    private final CategoryRepository categoryRepository;
+    private final EmissionFactorEngine emissionFactorEngine;
+    private final EntityManager entityManager;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public TransactionImportService(AppUserRepository appUserRepository,
+                                    AppUserCache appUserCache,
+                                    CategoryRepository categoryRepository,
+                                    EmissionFactorEngine emissionFactorEngine,
+                                    EntityManager entityManager,
+                                    DailyRollupService dailyRollupService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${transaction.import.batch-size:500}") int batchSize) {
+        this.appUserRepository = appUserRepository;
+        this.appUserCache = appUserCache;
+        this.categoryRepository = categoryRepository;
+        this.emissionFactorEngine = emissionFactorEngine;
+        this.entityManager = entityManager;
+        this.dailyRollupService = dailyRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public TransactionImportResultDTO importTransactions(InputStream input, String format, String defaultCategoryName, AppUser user) throws IOException {
+        long started = System.currentTimeMillis();
+        // Resolve categories from memory instead of one lookup per row
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : categoryRepository.findByUserIdOrUserIsNull(user.getId())) {
+            categoriesByName.putIfAbsent(categoryKey(category.getName()), category);
+        }
+        Category defaultCategory = defaultCategoryName != null ? categoriesByName.get(categoryKey(defaultCategoryName)) : null;
+        if (defaultCategoryName != null && defaultCategory == null) {
+            throw new IllegalArgumentException("Unknown default category: " + defaultCategoryName);
+        }
+
+        ImportProgress progress = new ImportProgress();
+        LocalDateTime recentThreshold = LocalDateTime.now().minusDays(30);
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        List<Long> batchRows = new ArrayList<>(batchSize);
+
+        try (TransactionFileReader reader = openReader(input, format)) {
+            ImportedRow row;
+            while ((row = reader.next()) != null) {
+                progress.rowsRead++;
+                Transaction transaction;
+                try {
+                    transaction = toTransaction(row, user, categoriesByName, defaultCategory);
+                } catch (IllegalArgumentException e) {
+                    progress.fail(row.rowNumber(), e.getMessage());
+                    continue;
+                }
+                if (transaction.getDate().isAfter(recentThreshold)) {
+                    progress.touchesRecentTransactions = true;
+                }
+                batch.add(transaction);
+                batchRows.add(row.rowNumber());
+                if (batch.size() >= batchSize) {
+                    persistBatch(batch, batchRows, progress);
+                }
+            }
+            persistBatch(batch, batchRows, progress);
+        }
+
+        // One user write for the whole import instead of one per row
+        if (progress.touchesRecentTransactions && progress.imported > 0) {
+            appUserRepository.bumpDataVersion(user.getId(), LocalDateTime.now());
+            appUserCache.invalidate(user.getId());
+        }
+
+        return TransactionImportResultDTO.builder()
+                .format(format.toLowerCase(Locale.ROOT))
+                .rowsRead(progress.rowsRead)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .pendingCarbonEnrichment(progress.pendingEnrichment)
+                .durationMillis(System.currentTimeMillis() - started)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+    }
+
+    private TransactionFileReader openReader(InputStream input, String format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> new CsvTransactionFileReader(reader);
+            case "ofx", "qfx" -> new OfxTransactionFileReader(reader);
+            default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+        };
+    }
+
+    // Insert and commit one batch, then detach everything so the persistence context does not grow.
+    // A failed batch is rolled back as a whole and retried row by row, so only the offending rows are reported.
+    private void persistBatch(List<Transaction> batch, List<Long> batchRows, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+            progress.imported(batch);
+        } catch (RuntimeException e) {
+            log.warn("Import batch for rows {}-{} failed, retrying its rows one at a time",
+                    batchRows.get(0), batchRows.get(batchRows.size() - 1), e);
+            for (int i = 0; i < batch.size(); i++) {
+                Transaction transaction = batch.get(i);
+                transaction.setId(null); // Assigned by the rolled-back attempt
+                try {
+                    insert(List.of(transaction));
+                    progress.imported(List.of(transaction));
+                } catch (RuntimeException rowError) {
+                    progress.fail(batchRows.get(i), "Database error: " + rootCauseMessage(rowError));
+                }
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    private void insert(List<Transaction> transactions) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Transaction transaction : transactions) {
+                entityManager.persist(transaction);
+            }
+            entityManager.flush();
+            dailyRollupService.recordCreated(transactions);
+            entityManager.clear();
+        });
+    }
+
+    private static String rootCauseMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    private Transaction toTransaction(ImportedRow row, AppUser user, Map<String, Category> categoriesByName, Category defaultCategory) {
+        LocalDateTime date = parseDate(row.date());
+        BigDecimal amount = parseAmount(row.amount());
+        String type = row.type();
+        if (type == null) {
+            type = amount.signum() < 0 ? "Expense" : "Income";
+        } else if (type.equalsIgnoreCase("expense") || type.equalsIgnoreCase("debit")) {
+            type = "Expense";
+        } else if (type.equalsIgnoreCase("income") || type.equalsIgnoreCase("credit")) {
+            type = "Income";
+        } else {
+            throw new IllegalArgumentException("Unknown transaction type: " + type);
+        }
+        amount = amount.abs();
+
+        Category category;
+        if (row.category() != null) {
+            category = categoriesByName.get(categoryKey(row.category()));
+            if (category == null) {
+                throw new IllegalArgumentException("Unknown category: " + row.category());
+            }
+        } else if ("Income".equals(type) && categoriesByName.containsKey(categoryKey("Income"))) {
+            category = categoriesByName.get(categoryKey("Income"));
+        } else if (defaultCategory != null) {
+            category = defaultCategory;
+        } else {
+            throw new IllegalArgumentException("Missing category and no default category was given");
+        }
+
+        if (row.description() != null && row.description().length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setAppUser(user);
+        transaction.setCategory(category);
+        transaction.setAmount(amount);
+        transaction.setType(type);
+        transaction.setDate(date);
+        transaction.setDescription(row.description());
+        boolean hasDescription = row.description() != null && !row.description().isBlank();
+        Double offlineMultiplier = hasDescription ? emissionFactorEngine.match(row.description()) : null;
+        if (offlineMultiplier != null) {
+            transaction.setCarbonFootprint(amount.doubleValue() * offlineMultiplier);
+            transaction.setCarbonMultiplierUsed(offlineMultiplier);
+            transaction.setCarbonFootprintSource(CarbonFootprintSource.EMISSION_FACTOR_TABLE);
+            transaction.setCarbonEnrichmentStatus(CarbonEnrichmentStatus.COMPLETED);
+            return transaction;
+        }
+
+        transaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
+        if (category.getCarbonMultiplier() != null) {
+            transaction.setCarbonFootprint(amount.doubleValue() * category.getCarbonMultiplier());
+            transaction.setCarbonMultiplierUsed(category.getCarbonMultiplier());
+        }
+        transaction.setCarbonEnrichmentStatus(hasDescription ? CarbonEnrichmentStatus.PENDING : CarbonEnrichmentStatus.NOT_REQUIRED);
+        return transaction;
+    }
+
+    private LocalDateTime parseDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        if (value.contains("T")) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid date: " + value);
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // Try the next format
+            }
+        }
+        throw new IllegalArgumentException("Invalid date: " + value);
+    }
+
+    // Accepts any currency symbol, thousands separators and accounting-style negatives such as "(12.00)"
+    private BigDecimal parseAmount(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        String amount = value.trim();
+        boolean parenthesised = amount.startsWith("(") && amount.endsWith(")");
+        if (parenthesised) {
+            amount = amount.substring(1, amount.length() - 1);
+        }
+        amount = CURRENCY_NOISE.matcher(amount).replaceAll("");
+        try {
+            BigDecimal parsed = new BigDecimal(amount);
+            return parenthesised ? parsed.abs().negate() : parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static String categoryKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Running counters and the capped list of row errors
+    private static class ImportProgress {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private long pendingEnrichment;
+        private boolean touchesRecentTransactions;
+        private final List<TransactionImportResultDTO.RowError> errors = new ArrayList<>();
+
+        private void imported(List<Transaction> transactions) {
+            imported += transactions.size();
+            pendingEnrichment += transactions.stream()
+                    .filter(transaction -> transaction.getCarbonEnrichmentStatus() == CarbonEnrichmentStatus.PENDING)
+                    .count();
+        }
+
+        private void fail(long rowNumber, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new TransactionImportResultDTO.RowError(rowNumber, message));
+            }
+        }
+    }
+}
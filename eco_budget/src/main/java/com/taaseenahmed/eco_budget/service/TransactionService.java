@@ -1,7 +1,11 @@
 package com.taaseenahmed.eco_budget.service;
 
+import com.taaseenahmed.eco_budget.dto.request.TransactionFilterRequest;
+import com.taaseenahmed.eco_budget.dto.response.TransactionPageDTO;
 import com.taaseenahmed.eco_budget.entity.AppUser;
 import com.taaseenahmed.eco_budget.dto.response.AppUserDTO;
+import com.taaseenahmed.eco_budget.entity.CarbonEnrichmentStatus;
+import com.taaseenahmed.eco_budget.entity.CarbonFootprintSource;
 import com.taaseenahmed.eco_budget.entity.Transaction;
 import com.taaseenahmed.eco_budget.dto.response.TransactionDTO;
 import com.taaseenahmed.eco_budget.repository.AppUserRepository;
@@ -10,11 +14,21 @@ import com.taaseenahmed.eco_budget.dto.response.CategoryDTO;
 import com.taaseenahmed.eco_budget.repository.CategoryRepository;
 import com.taaseenahmed.eco_budget.exception.ResourceNotFoundException;
 import com.taaseenahmed.eco_budget.repository.TransactionRepository;
+import com.taaseenahmed.eco_budget.repository.TransactionSpecifications;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,17 +36,21 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class TransactionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final TransactionRepository transactionRepository;
     private final AppUserRepository appUserRepository;
+    private final AppUserCache appUserCache;
     private final CategoryRepository categoryRepository;
-    private final ChatGPTService chatGPTService;
+    private final CarbonMultiplierService carbonMultiplierService;
+    private final EmissionFactorEngine emissionFactorEngine;
+    private final CarbonEnrichmentService carbonEnrichmentService;
+    private final DailyRollupService dailyRollupService;
+    private final TransactionTemplate transactionTemplate;
 
     // Create a new transaction for the authenticated user
-    public TransactionDTO createTransaction(TransactionDTO transactionDTO, String userEmail) {
-        // Fetch the user by email
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public TransactionDTO createTransaction(TransactionDTO transactionDTO, AppUser user) {
         // Fetch the category for the transaction
         Category category = categoryRepository.findById(transactionDTO.getCategory().getId())
                 .orElseThrow(() -> new RuntimeException("Category not found"));
@@ -47,69 +65,103 @@ public class TransactionService {
         transaction.setAppUser(user);
 
         // Determine carbon footprint based on description or category multiplier
-        Double carbonMultiplierUsed = null;
-        if (transactionDTO.getDescription() != null && !transactionDTO.getDescription().isBlank()) {
+        boolean hasDescription = transactionDTO.getDescription() != null && !transactionDTO.getDescription().isBlank();
+        // The offline emission-factor table answers known merchants and keywords; only the rest need ChatGPT
+        Double carbonMultiplierUsed = hasDescription ? emissionFactorEngine.match(transactionDTO.getDescription()) : null;
+        boolean matchedOffline = carbonMultiplierUsed != null;
+        boolean deferEnrichment = hasDescription && !matchedOffline && carbonEnrichmentService.isAsyncEnabled();
+        if (hasDescription && !matchedOffline && !deferEnrichment) {
             // Get ChatGPT-derived carbon multiplier based on description
             carbonMultiplierUsed = getCarbonMultiplier(transactionDTO.getCategory().getName(), transactionDTO.getDescription());
         }
 
         // Apply carbon footprint based on multiplier or default category multiplier
         if (carbonMultiplierUsed != null) {
-            double chatGPTCarbonFootprint = transactionDTO.getAmount().doubleValue() * carbonMultiplierUsed;
-            transaction.setCarbonFootprint(chatGPTCarbonFootprint);
-            transaction.setChatGPTDerivedCarbonFootprint(true);
+            double derivedCarbonFootprint = transactionDTO.getAmount().doubleValue() * carbonMultiplierUsed;
+            transaction.setCarbonFootprint(derivedCarbonFootprint);
+            transaction.setCarbonFootprintSource(matchedOffline ? CarbonFootprintSource.EMISSION_FACTOR_TABLE : CarbonFootprintSource.CHATGPT);
         } else if (category.getCarbonMultiplier() != null) {
             double defaultCarbonFootprint = transactionDTO.getAmount().doubleValue() * category.getCarbonMultiplier();
             transaction.setCarbonFootprint(defaultCarbonFootprint);
-            transaction.setChatGPTDerivedCarbonFootprint(false);
+            transaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
             carbonMultiplierUsed = category.getCarbonMultiplier();
         } else {
             transaction.setCarbonFootprint(null);
-            transaction.setChatGPTDerivedCarbonFootprint(false);
+            transaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
         }
 
         // Save the carbon multiplier used
         transaction.setCarbonMultiplierUsed(carbonMultiplierUsed);
-
-        // Save the new transaction
-        Transaction savedTransaction = transactionRepository.save(transaction);
+        transaction.setCarbonEnrichmentStatus(resolveEnrichmentStatus(hasDescription, deferEnrichment, transaction));
+
+        // Save the new transaction and its rollup delta together, outside of the ChatGPT call above
+        Transaction savedTransaction = transactionTemplate.execute(status -> {
+            Transaction saved = transactionRepository.save(transaction);
+            dailyRollupService.recordCreated(saved);
+            if (deferEnrichment) {
+                carbonEnrichmentService.enqueue(saved.getId());
+            }
+
+            // Check if the transaction date is within the last 30 days
+            if (saved.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
+                bumpDataVersion(user.getId());
+            }
+            return saved;
+        });
         TransactionDTO responseDTO = convertToDTO(savedTransaction);
         responseDTO.setCarbonMultiplierUsed(carbonMultiplierUsed); // Set the multiplier used
 
-        // Check if the transaction date is within the last 30 days
-        if (transaction.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
-            user.setTransactionsUpdatedForRecommendations(true);
-            user.setTransactionsUpdatedForBenchmarks(true);
-            appUserRepository.save(user);
-        }
-
         return responseDTO;
     }
 
     // Retrieve all transactions and convert them to DTOs
     public List<TransactionDTO> getAllTransactions() {
         return transactionRepository.findAll().stream()
-                .map(this::convertToDTO)
+                .map(TransactionService::convertToDTO)
                 .collect(Collectors.toList());
     }
 
-    // Get transactions for a specific user using email
-    public List<TransactionDTO> getTransactionsByUserEmail(String userEmail) {
-        // Fetch user by email
-        AppUser user = appUserRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    // Get transactions for a specific user
+    public List<TransactionDTO> getTransactionsByUser(AppUser user) {
         // Retrieve the user's transactions and convert to DTOs
         List<Transaction> transactions = transactionRepository.findByAppUserId(user.getId());
         return transactions.stream()
-                .map(this::convertToDTO)
+                .map(TransactionService::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Get one page of a user's transactions, filtered and sorted in the database and paginated by keyset (sort key, id)
+    public TransactionPageDTO getTransactionPage(AppUser user, TransactionFilterRequest filter) {
+        String sortProperty = resolveSortProperty(filter.getSort());
+        Sort.Direction direction = filter.getSort() != null && filter.getSort().endsWith("Asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortProperty).and(Sort.by(direction, "id"));
+        int limit = filter.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(filter.getLimit(), MAX_PAGE_SIZE));
+        ScrollPosition position = filter.getCursor() == null || filter.getCursor().isBlank()
+                ? ScrollPosition.keyset()
+                : decodeCursor(filter.getCursor(), sortProperty);
+
+        Window<Transaction> window = transactionRepository.findBy(
+                TransactionSpecifications.forUser(user.getId(), filter),
+                query -> query.sortBy(sort).limit(limit).scroll(position));
+
+        List<TransactionDTO> items = window.getContent().stream()
+                .map(TransactionService::convertToDTO)
                 .collect(Collectors.toList());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? encodeCursor(window.getContent().get(window.size() - 1), sortProperty)
+                : null;
+
+        return TransactionPageDTO.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(window.hasNext())
+                .build();
     }
 
     // Fetch a single transaction by ID
     public Optional<TransactionDTO> getTransactionById(Long id) {
         Optional<Transaction> transaction = transactionRepository.findById(id);
-        return transaction.map(this::convertToDTO); // Return transaction as DTO if found
+        return transaction.map(TransactionService::convertToDTO); // Return transaction as DTO if found
     }
 
     // Update an existing transaction
@@ -117,6 +169,7 @@ public class TransactionService {
         // Fetch the existing transaction by ID
         Transaction existingTransaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+        DailyRollupService.Contribution previousContribution = DailyRollupService.Contribution.of(existingTransaction);
 
         // Check if the description has changed
         boolean descriptionChanged = !transactionDTO.getDescription().equals(existingTransaction.getDescription());
@@ -136,41 +189,65 @@ public class TransactionService {
 
         // Recalculate the carbon footprint
         Double carbonMultiplierUsed = existingTransaction.getCarbonMultiplierUsed();
+        boolean deferEnrichment = false;
         if (descriptionChanged) {
-            // Get ChatGPT-derived carbon multiplier based on new description
-            carbonMultiplierUsed = getCarbonMultiplier(existingTransaction.getCategory().getName(), transactionDTO.getDescription());
-            existingTransaction.setChatGPTDerivedCarbonFootprint(true);
+            boolean hasDescription = transactionDTO.getDescription() != null && !transactionDTO.getDescription().isBlank();
+            Double offlineMultiplier = hasDescription ? emissionFactorEngine.match(transactionDTO.getDescription()) : null;
+            deferEnrichment = hasDescription && offlineMultiplier == null && carbonEnrichmentService.isAsyncEnabled();
+            if (offlineMultiplier != null) {
+                // Matched by the offline emission-factor table, no ChatGPT call or background refinement needed
+                carbonMultiplierUsed = offlineMultiplier;
+                existingTransaction.setCarbonFootprintSource(CarbonFootprintSource.EMISSION_FACTOR_TABLE);
+            } else if (deferEnrichment) {
+                // Fall back to the category multiplier until the background refinement lands
+                carbonMultiplierUsed = null;
+                existingTransaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
+                existingTransaction.setCarbonEnrichmentStatus(CarbonEnrichmentStatus.PENDING);
+            } else {
+                // Get ChatGPT-derived carbon multiplier based on new description
+                carbonMultiplierUsed = getCarbonMultiplier(existingTransaction.getCategory().getName(), transactionDTO.getDescription());
+                existingTransaction.setCarbonFootprintSource(CarbonFootprintSource.CHATGPT);
+            }
         }
 
         if (carbonMultiplierUsed != null) {
-            double chatGPTCarbonFootprint = transactionDTO.getAmount().doubleValue() * carbonMultiplierUsed;
-            existingTransaction.setCarbonFootprint(chatGPTCarbonFootprint);
+            double derivedCarbonFootprint = transactionDTO.getAmount().doubleValue() * carbonMultiplierUsed;
+            existingTransaction.setCarbonFootprint(derivedCarbonFootprint);
         } else if (existingTransaction.getCategory().getCarbonMultiplier() != null) {
             double defaultCarbonFootprint = transactionDTO.getAmount().doubleValue() * existingTransaction.getCategory().getCarbonMultiplier();
             existingTransaction.setCarbonFootprint(defaultCarbonFootprint);
-            existingTransaction.setChatGPTDerivedCarbonFootprint(false);
+            existingTransaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
             carbonMultiplierUsed = existingTransaction.getCategory().getCarbonMultiplier();
         } else {
             existingTransaction.setCarbonFootprint(null);
-            existingTransaction.setChatGPTDerivedCarbonFootprint(false);
+            existingTransaction.setCarbonFootprintSource(CarbonFootprintSource.CATEGORY_DEFAULT);
         }
 
         // Save the carbon multiplier used
         existingTransaction.setCarbonMultiplierUsed(carbonMultiplierUsed);
+        if (descriptionChanged && !deferEnrichment) {
+            boolean hasDescription = transactionDTO.getDescription() != null && !transactionDTO.getDescription().isBlank();
+            existingTransaction.setCarbonEnrichmentStatus(resolveEnrichmentStatus(hasDescription, false, existingTransaction));
+        }
 
-        // Save and return the updated transaction as a DTO
-        Transaction updatedTransaction = transactionRepository.save(existingTransaction);
+        // Save the updated transaction and move its rollup contribution in the same database transaction
+        boolean enqueueEnrichment = deferEnrichment;
+        Transaction updatedTransaction = transactionTemplate.execute(status -> {
+            Transaction saved = transactionRepository.save(existingTransaction);
+            dailyRollupService.recordUpdated(previousContribution, saved);
+            if (enqueueEnrichment) {
+                carbonEnrichmentService.enqueue(saved.getId());
+            }
+
+            // Check if the transaction date is within the last 30 days
+            if (saved.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
+                bumpDataVersion(saved.getAppUser().getId());
+            }
+            return saved;
+        });
         TransactionDTO responseDTO = convertToDTO(updatedTransaction);
         responseDTO.setCarbonMultiplierUsed(carbonMultiplierUsed); // Set the multiplier used
 
-        // Check if the transaction date is within the last 30 days
-        if (existingTransaction.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
-            AppUser user = existingTransaction.getAppUser();
-            user.setTransactionsUpdatedForRecommendations(true);
-            user.setTransactionsUpdatedForBenchmarks(true);
-            appUserRepository.save(user);
-        }
-
         return responseDTO;
     }
 
@@ -179,19 +256,19 @@ public class TransactionService {
         Transaction existingTransaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
 
-        // Check if the transaction date is within the last 30 days
-        if (existingTransaction.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
-            AppUser user = existingTransaction.getAppUser();
-            user.setTransactionsUpdatedForRecommendations(true);
-            user.setTransactionsUpdatedForBenchmarks(true);
-            appUserRepository.save(user);
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Check if the transaction date is within the last 30 days
+            if (existingTransaction.getDate().isAfter(LocalDateTime.now().minusDays(30))) {
+                bumpDataVersion(existingTransaction.getAppUser().getId());
+            }
 
-        transactionRepository.delete(existingTransaction);
+            transactionRepository.delete(existingTransaction);
+            dailyRollupService.recordDeleted(DailyRollupService.Contribution.of(existingTransaction));
+        });
     }
 
-    // Convert a Transaction entity to a DTO
-    public TransactionDTO convertToDTO(Transaction transaction) {
+    // Convert a Transaction entity to a DTO; static, since it needs none of the service's collaborators
+    public static TransactionDTO convertToDTO(Transaction transaction) {
         // Convert related Category and AppUser entities to DTOs
         CategoryDTO categoryDTO = new CategoryDTO(
                 transaction.getCategory().getId(),
@@ -207,7 +284,8 @@ public class TransactionService {
         );
 
         // Determine the multiplier used for carbon footprint
-        Double carbonMultiplierUsed = transaction.isChatGPTDerivedCarbonFootprint()
+        CarbonFootprintSource source = transaction.resolveCarbonFootprintSource();
+        Double carbonMultiplierUsed = source != CarbonFootprintSource.CATEGORY_DEFAULT
                 ? transaction.getCarbonFootprint() / transaction.getAmount().doubleValue()
                 : transaction.getCategory().getCarbonMultiplier();
 
@@ -221,23 +299,62 @@ public class TransactionService {
                 .date(transaction.getDate())
                 .description(transaction.getDescription())
                 .carbonFootprint(transaction.getCarbonFootprint())
-                .isChatGPTDerivedCarbonFootprint(transaction.isChatGPTDerivedCarbonFootprint())
+                .isChatGPTDerivedCarbonFootprint(source == CarbonFootprintSource.CHATGPT)
+                .carbonFootprintSource(source.name())
                 .carbonMultiplierUsed(carbonMultiplierUsed)
+                .carbonEnrichmentStatus(transaction.getCarbonEnrichmentStatus() != null ? transaction.getCarbonEnrichmentStatus().name() : null)
                 .build();
     }
 
-    // Create a prompt for carbon multiplier
-    private String createCarbonMultiplierPrompt(String categoryName, String description) {
-        if (description == null || description.isBlank()) {
-            return String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. Only provide the numeric multiplier.", categoryName);
-        } else {
-            return String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. This is a description of the transaction: %s. Only provide the numeric multiplier.", categoryName, description);
+    private String resolveSortProperty(String sort) {
+        if (sort == null || sort.isBlank() || sort.equals("dateDesc") || sort.equals("dateAsc")) {
+            return "date";
+        }
+        if (sort.equals("amountDesc") || sort.equals("amountAsc")) {
+            return "amount";
+        }
+        throw new IllegalArgumentException("Unsupported sort option: " + sort);
+    }
+
+    // The cursor is the sort key and id of the last row on the page, base64url encoded as "property|value|id"
+    private String encodeCursor(Transaction last, String sortProperty) {
+        Object value = sortProperty.equals("date") ? last.getDate() : last.getAmount();
+        String raw = sortProperty + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ScrollPosition decodeCursor(String cursor, String sortProperty) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || !parts[0].equals(sortProperty)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            Object value = sortProperty.equals("date") ? LocalDateTime.parse(parts[1]) : new BigDecimal(parts[1]);
+            return ScrollPosition.forward(Map.of(sortProperty, value, "id", Long.valueOf(parts[2])));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Mark the user's recommendations and benchmarks as stale with one atomic UPDATE, without loading or merging the user row
+    private void bumpDataVersion(Long userId) {
+        appUserRepository.bumpDataVersion(userId, LocalDateTime.now());
+        appUserCache.invalidate(userId);
+    }
+
+    // Work out the enrichment status for a freshly calculated carbon footprint
+    private CarbonEnrichmentStatus resolveEnrichmentStatus(boolean hasDescription, boolean deferred, Transaction transaction) {
+        if (!hasDescription) {
+            return CarbonEnrichmentStatus.NOT_REQUIRED;
+        }
+        if (deferred) {
+            return CarbonEnrichmentStatus.PENDING;
         }
+        return transaction.resolveCarbonFootprintSource() != CarbonFootprintSource.CATEGORY_DEFAULT ? CarbonEnrichmentStatus.COMPLETED : CarbonEnrichmentStatus.FAILED;
     }
 
     // Get carbon multiplier from ChatGPTService
     public Double getCarbonMultiplier(String categoryName, String description) {
-        String prompt = createCarbonMultiplierPrompt(categoryName, description);
-        return chatGPTService.getCarbonMultiplier(prompt);
+        return carbonMultiplierService.getCarbonMultiplier(categoryName, description);
     }
 }
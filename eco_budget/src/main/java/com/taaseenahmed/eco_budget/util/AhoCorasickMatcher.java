@@ -0,0 +1,163 @@
+package com.taaseenahmed.eco_budget.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+// Immutable multi-keyword matcher compiled once into an Aho-Corasick automaton, so a lookup is a single pass over the text
+// whatever the number of keywords. Text and keywords are reduced to lowercase letters and digits separated by single spaces,
+// and keywords only match whole words ("bus" matches "bus fare" but not "business"). When several keywords occur the longest wins.
+public class AhoCorasickMatcher<V> {
+
+    // Alphabet after normalisation: a space, then a-z, then 0-9
+    private static final int ALPHABET = 37;
+
+    private final int[] transitions;   // state * ALPHABET + symbol -> next state, with failure links already folded in
+    private final int[] bestOutput;    // state -> index of the longest keyword ending here (directly or via suffix), or -1
+    private final int[] keywordLengths;
+    private final List<V> values;
+
+    public AhoCorasickMatcher(Map<String, V> keywords) {
+        List<int[]> children = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        children.add(newNode());
+        outputs.add(-1);
+
+        this.values = new ArrayList<>(keywords.size());
+        List<Integer> lengths = new ArrayList<>(keywords.size());
+
+        // Build the trie; every keyword is padded with spaces so matches sit on word boundaries
+        for (Map.Entry<String, V> keyword : keywords.entrySet()) {
+            String normalised = normalise(keyword.getKey());
+            if (normalised.isBlank()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < normalised.length(); i++) {
+                int symbol = symbol(normalised.charAt(i));
+                if (children.get(state)[symbol] < 0) {
+                    children.get(state)[symbol] = children.size();
+                    children.add(newNode());
+                    outputs.add(-1);
+                }
+                state = children.get(state)[symbol];
+            }
+            int index = values.size();
+            values.add(keyword.getValue());
+            lengths.add(normalised.length());
+            outputs.set(state, index); // A duplicate keyword after normalisation keeps the last value
+        }
+
+        int states = children.size();
+        this.transitions = new int[states * ALPHABET];
+        this.bestOutput = new int[states];
+        this.keywordLengths = lengths.stream().mapToInt(Integer::intValue).toArray();
+        int[] failure = new int[states];
+
+        // Breadth-first over the trie: each state's failure target is shallower, so its transitions are already complete
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int child = children.get(0)[symbol];
+            if (child < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = child;
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        bestOutput[0] = outputs.get(0);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            bestOutput[state] = longer(outputs.get(state), bestOutput[failure[state]]);
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = children.get(state)[symbol];
+                if (child < 0) {
+                    transitions[state * ALPHABET + symbol] = transitions[failure[state] * ALPHABET + symbol];
+                } else {
+                    transitions[state * ALPHABET + symbol] = child;
+                    failure[child] = transitions[failure[state] * ALPHABET + symbol];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    // Value of the longest keyword found in the text (earliest on ties), or null if none occurs
+    public V findLongest(String text) {
+        if (text == null || values.isEmpty()) {
+            return null;
+        }
+        int state = transitions[0]; // Leading word boundary
+        int best = -1;
+        boolean lastWasSpace = true;
+        for (int i = 0; i < text.length(); i++) {
+            int symbol = symbol(Character.toLowerCase(text.charAt(i)));
+            if (symbol == 0) {
+                if (lastWasSpace) {
+                    continue; // Runs of separators count as one space
+                }
+                lastWasSpace = true;
+            } else {
+                lastWasSpace = false;
+            }
+            state = transitions[state * ALPHABET + symbol];
+            best = longer(best, bestOutput[state]);
+        }
+        if (!lastWasSpace) {
+            state = transitions[state * ALPHABET]; // Trailing word boundary
+            best = longer(best, bestOutput[state]);
+        }
+        return best < 0 ? null : values.get(best);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    private int longer(int current, int candidate) {
+        if (candidate < 0) {
+            return current;
+        }
+        if (current < 0 || keywordLengths[candidate] > keywordLengths[current]) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    // Lowercase letters and digits keep their identity, everything else is a word separator
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + (c - 'a');
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + (c - '0');
+        }
+        return 0;
+    }
+
+    private static String normalise(String keyword) {
+        StringBuilder normalised = new StringBuilder(keyword.length() + 2).append(' ');
+        for (int i = 0; i < keyword.length(); i++) {
+            int symbol = symbol(Character.toLowerCase(keyword.charAt(i)));
+            if (symbol != 0) {
+                normalised.append(Character.toLowerCase(keyword.charAt(i)));
+            } else if (normalised.charAt(normalised.length() - 1) != ' ') {
+                normalised.append(' ');
+            }
+        }
+        if (normalised.charAt(normalised.length() - 1) != ' ') {
+            normalised.append(' ');
+        }
+        return normalised.toString();
+    }
+}
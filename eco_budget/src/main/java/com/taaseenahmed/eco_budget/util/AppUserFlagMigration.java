@@ -0,0 +1,39 @@
+package com.taaseenahmed.eco_budget.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// One-off migration for the per-purpose staleness flags that dataVersion replaced.
+// They were NOT NULL columns without a default and ddl-auto=update never drops columns, so every AppUser insert
+// would fail on them; this drops both. Once they are gone it does nothing.
+@Slf4j
+@Component
+public class AppUserFlagMigration implements CommandLineRunner {
+
+    private static final String DROP_FLAGS = """
+            ALTER TABLE app_user
+                DROP COLUMN IF EXISTS transactions_updated_for_recommendations,
+                DROP COLUMN IF EXISTS transactions_updated_for_benchmarks""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AppUserFlagMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (columnExists("transactions_updated_for_recommendations") || columnExists("transactions_updated_for_benchmarks")) {
+            jdbcTemplate.execute(DROP_FLAGS);
+            log.info("Dropped the superseded staleness flags from app_user");
+        }
+    }
+
+    private boolean columnExists(String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = 'app_user' AND column_name = ?)",
+                Boolean.class, column));
+    }
+}
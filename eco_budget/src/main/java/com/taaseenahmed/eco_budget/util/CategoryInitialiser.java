@@ -2,43 +2,85 @@ package com.taaseenahmed.eco_budget.util;
 
 import com.taaseenahmed.eco_budget.entity.Category;
 import com.taaseenahmed.eco_budget.repository.CategoryRepository;
+import com.taaseenahmed.eco_budget.service.CarbonMultiplierService;
 import com.taaseenahmed.eco_budget.service.ChatGPTService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Seeds the predefined categories from a bundled factor file, so startup never waits on (or needs) ChatGPT.
+// Once the app is ready, seeded multipliers that nobody has changed can optionally be refined by ChatGPT in the background.
+@Slf4j
 @Component
 public class CategoryInitialiser implements CommandLineRunner {
 
     private final CategoryRepository categoryRepository;
     private final ChatGPTService chatGPTService;
+    private final JdbcTemplate jdbcTemplate;
+    private final FactorTable defaultCategories;
+    private final boolean refineWithLlm;
 
     // Constructor injection
-    public CategoryInitialiser(CategoryRepository categoryRepository, ChatGPTService chatGPTService) {
+    public CategoryInitialiser(CategoryRepository categoryRepository,
+                               ChatGPTService chatGPTService,
+                               JdbcTemplate jdbcTemplate,
+                               ResourceLoader resourceLoader,
+                               @Value("${category.seed.location:classpath:default-categories.csv}") String location,
+                               @Value("${category.seed.refine-with-llm:true}") boolean refineWithLlm) throws IOException {
         this.categoryRepository = categoryRepository;
         this.chatGPTService = chatGPTService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultCategories = FactorTable.load(resourceLoader.getResource(location));
+        this.refineWithLlm = refineWithLlm;
     }
 
     @Override
     public void run(String... args) {
         if (categoryRepository.count() == 0) {
-            String[] categories = {"Food", "Transport", "Groceries", "Healthcare", "Entertainment", "Beauty", "Home and Family", "Shopping", "Income"};
-
-            for (String categoryName : categories) {
-                Double carbonMultiplier;
-                if ("Income".equals(categoryName)) {
-                    carbonMultiplier = 0.0;
-                } else {
-                    carbonMultiplier = getCarbonMultiplier(categoryName);
-                }
-                categoryRepository.save(new Category(categoryName, carbonMultiplier));
-            }
+            // One batched insert; Category IDs come from an IDENTITY column, which Hibernate cannot batch
+            List<Object[]> rows = defaultCategories.factors().entrySet().stream()
+                    .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                    .collect(Collectors.toList());
+            jdbcTemplate.batchUpdate("INSERT INTO category (name, carbon_multiplier, user_id) VALUES (?, ?, NULL)", rows);
 
-            System.out.println("Default categories with multipliers have been loaded.");
+            System.out.println("Default categories with multipliers have been loaded (factor table " + defaultCategories.version() + ").");
         }
     }
 
-    private Double getCarbonMultiplier(String categoryName) {
-        String prompt = String.format("Provide a single numeric carbon footprint multiplier in kilograms of CO2 per dollar spent for a transaction in the '%s' category. Only provide the numeric multiplier.", categoryName);
-        return chatGPTService.getCarbonMultiplier(prompt);
+    // Runs after startup has finished and only submits async prompts, so the main thread never waits on ChatGPT
+    @EventListener(ApplicationReadyEvent.class)
+    public void refineSeededMultipliers() {
+        if (!refineWithLlm || !chatGPTService.isAvailable()) {
+            return;
+        }
+        Map<String, Double> seeded = defaultCategories.factors();
+        for (Category category : categoryRepository.findByUserIsNull()) {
+            Double seededMultiplier = seeded.get(category.getName());
+            // Income stays at zero, and categories already refined or edited are left alone
+            if ("Income".equals(category.getName()) || seededMultiplier == null || !seededMultiplier.equals(category.getCarbonMultiplier())) {
+                continue;
+            }
+            String prompt = CarbonMultiplierService.createCarbonMultiplierPrompt(category.getName(), null);
+            chatGPTService.getCarbonMultiplierAsync(prompt)
+                    .thenAccept(refined -> {
+                        if (refined != null && refined >= 0) {
+                            categoryRepository.refineCarbonMultiplier(category.getId(), seededMultiplier, refined);
+                        }
+                    })
+                    .exceptionally(error -> {
+                        log.warn("Could not refine the carbon multiplier of category {}: {}", category.getName(), error.toString());
+                        return null;
+                    });
+        }
     }
 }
@@ -0,0 +1,47 @@
+package com.taaseenahmed.eco_budget.util;
+
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A bundled "key,kgCO2e per currency unit" file: '#' starts a comment line and "# version: x" names the table's version.
+public record FactorTable(String version, Map<String, Double> factors) {
+
+    private static final String VERSION_PREFIX = "# version:";
+
+    public static FactorTable load(Resource resource) throws IOException {
+        Map<String, Double> factors = new LinkedHashMap<>();
+        String version = "unversioned";
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.startsWith(VERSION_PREFIX)) {
+                    version = line.substring(VERSION_PREFIX.length()).trim();
+                    continue;
+                }
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int comma = line.lastIndexOf(',');
+                try {
+                    if (comma <= 0) {
+                        throw new NumberFormatException("missing factor");
+                    }
+                    factors.put(line.substring(0, comma).trim(), Double.valueOf(line.substring(comma + 1).trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalStateException("Malformed factor in " + resource.getDescription() + " at line " + lineNumber + ": " + line, e);
+                }
+            }
+        }
+        return new FactorTable(version, Collections.unmodifiableMap(factors));
+    }
+}
@@ -0,0 +1,63 @@
+package com.taaseenahmed.eco_budget.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One-off migration from the old element-collection tables to the JSONB document columns.
+// Hibernate adds the document columns at startup; this copies the tips of existing rows into them and drops the old tables,
+// in one transaction per entity. Once the old tables are gone it does nothing.
+@Slf4j
+@Component
+public class InsightDocumentMigration implements CommandLineRunner {
+
+    private static final String MIGRATE_RECOMMENDATIONS = """
+            UPDATE recommendation r SET document = jsonb_build_object(
+                'schemaVersion', 1,
+                'spendingRecommendations', COALESCE((SELECT jsonb_agg(s.spending_recommendations ORDER BY s.ctid)
+                    FROM recommendation_spending_recommendations s WHERE s.recommendation_id = r.id), '[]'::jsonb),
+                'carbonFootprintRecommendations', COALESCE((SELECT jsonb_agg(c.carbon_footprint_recommendations ORDER BY c.ctid)
+                    FROM recommendation_carbon_footprint_recommendations c WHERE c.recommendation_id = r.id), '[]'::jsonb))
+            WHERE r.document IS NULL""";
+
+    private static final String MIGRATE_BENCHMARKS = """
+            UPDATE benchmark b SET document = jsonb_build_object(
+                'schemaVersion', 1,
+                'benchmarks', COALESCE((SELECT jsonb_agg(l.benchmarks ORDER BY l.ctid)
+                    FROM benchmark_list l WHERE l.benchmark_id = b.id), '[]'::jsonb))
+            WHERE b.document IS NULL""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public InsightDocumentMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (tableExists("recommendation_spending_recommendations") && tableExists("recommendation_carbon_footprint_recommendations")) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int migrated = jdbcTemplate.update(MIGRATE_RECOMMENDATIONS);
+                jdbcTemplate.execute("DROP TABLE recommendation_spending_recommendations");
+                jdbcTemplate.execute("DROP TABLE recommendation_carbon_footprint_recommendations");
+                log.info("Migrated {} recommendations to JSONB documents", migrated);
+            });
+        }
+        if (tableExists("benchmark_list")) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int migrated = jdbcTemplate.update(MIGRATE_BENCHMARKS);
+                jdbcTemplate.execute("DROP TABLE benchmark_list");
+                log.info("Migrated {} benchmarks to JSONB documents", migrated);
+            });
+        }
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+}
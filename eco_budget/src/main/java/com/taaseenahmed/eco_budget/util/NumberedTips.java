@@ -0,0 +1,76 @@
+package com.taaseenahmed.eco_budget.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Splits ChatGPT's "1. ... 2. ..." answers into tips, either all at once or incrementally while the answer streams in.
+public final class NumberedTips {
+
+    private static final Pattern TIP_START = Pattern.compile("(?m)^\\d+\\.\\s");
+
+    private NumberedTips() {
+    }
+
+    public static List<String> parse(String text) {
+        List<String> tips = new ArrayList<>();
+        for (String segment : TIP_START.split(text)) {
+            String tip = clean(segment);
+            if (tip != null) {
+                tips.add(tip);
+            }
+        }
+        return tips;
+    }
+
+    // Null for segments that are too short or are the introductory sentence
+    private static String clean(String segment) {
+        String trimmedTip = segment.trim();
+        if (trimmedTip.isEmpty() || trimmedTip.length() < 5) {
+            return null;
+        }
+        // Remove any leading or trailing special characters
+        trimmedTip = trimmedTip.replaceAll("^\\*+|\\*+$", "").trim();
+        // Remove '**' that comes after the title
+        trimmedTip = trimmedTip.replaceAll("\\*\\*$", "").replaceAll("\\*\\*:", ":").trim();
+        // Exclude the introductory sentence
+        if (trimmedTip.startsWith("Based on your transaction data")) {
+            return null;
+        }
+        return trimmedTip;
+    }
+
+    // Feed streamed text in; a tip is complete (and returned) once the next numbered tip starts or the stream ends.
+    // The tips returned over the whole stream are exactly what parse() returns for the full text.
+    public static class Incremental {
+
+        private final StringBuilder text = new StringBuilder();
+        private int completedSegments;
+
+        public List<String> append(String delta) {
+            text.append(delta);
+            String[] segments = TIP_START.split(text, -1);
+            return collect(segments, segments.length - 1); // The last segment may still grow
+        }
+
+        public List<String> finish() {
+            String[] segments = TIP_START.split(text, -1);
+            return collect(segments, segments.length);
+        }
+
+        public String getText() {
+            return text.toString();
+        }
+
+        private List<String> collect(String[] segments, int completeUpTo) {
+            List<String> tips = new ArrayList<>();
+            for (; completedSegments < completeUpTo; completedSegments++) {
+                String tip = clean(segments[completedSegments]);
+                if (tip != null) {
+                    tips.add(tip);
+                }
+            }
+            return tips;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.taaseenahmed.eco_budget.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Canonical, quantized prompt inputs: users with similar data (or one user editing a transaction back and forth)
+// produce byte-identical prompts, which can then share a cached completion keyed by the prompt's hash.
+public final class PromptProfile {
+
+    private static final MathContext TWO_SIGNIFICANT_FIGURES = new MathContext(2, RoundingMode.HALF_UP);
+    private static final Pattern AMOUNTS = Pattern.compile("[£$€]?\\d+(?:[.,]\\d+)*");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_DESCRIPTION_LENGTH = 50;
+
+    private PromptProfile() {
+    }
+
+    // Two significant figures: 12.49 -> 12, 137.20 -> 140, 3.75 -> 3.8
+    public static double quantize(double value) {
+        if (value == 0.0 || !Double.isFinite(value)) {
+            return 0.0;
+        }
+        return new BigDecimal(value).round(TWO_SIGNIFICANT_FIGURES).doubleValue();
+    }
+
+    // Quantized value without a trailing ".0", so the prompt text is stable
+    public static String format(double value) {
+        return BigDecimal.valueOf(quantize(value)).stripTrailingZeros().toPlainString();
+    }
+
+    // Lower-cased, amounts stripped, whitespace collapsed and truncated
+    public static String normalizeDescription(String description) {
+        if (description == null || description.isBlank()) {
+            return "no description";
+        }
+        String withoutAmounts = AMOUNTS.matcher(description.toLowerCase(Locale.ROOT)).replaceAll(" ");
+        String normalized = WHITESPACE.matcher(withoutAmounts).replaceAll(" ").trim();
+        if (normalized.isEmpty()) {
+            return "no description";
+        }
+        return normalized.length() > MAX_DESCRIPTION_LENGTH ? normalized.substring(0, MAX_DESCRIPTION_LENGTH) + "..." : normalized;
+    }
+
+    // Escape what would break the JSON-like listing inside a prompt
+    public static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    public static String hash(String prompt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.taaseenahmed.eco_budget.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Sees every SQL statement Hibernate prepares and adds it to the current thread's QueryCounter; the SQL itself is left untouched.
+// Registered by class name through hibernate.session_factory.statement_inspector, so @DataJpaTest slices count as well.
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.increment();
+        return sql;
+    }
+}
@@ -0,0 +1,87 @@
+package com.taaseenahmed.eco_budget.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Counts the SQL statements Hibernate prepares on the current thread while a count is open.
+// QueryCountFilter opens one per HTTP request; tests use measure() to pin how many statements an operation may cost.
+// Statements run on other threads (async enrichment, streamed responses) are not counted.
+// A process-wide total of every statement, on any thread, backs the db.statements meter.
+public final class QueryCounter {
+
+    private static final ThreadLocal<Count> CURRENT = new ThreadLocal<>();
+    private static final LongAdder TOTAL = new LongAdder();
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Count(CURRENT.get()));
+    }
+
+    // Closes the innermost open count and returns it; an enclosing count keeps these statements too
+    public static long stop() {
+        Count count = CURRENT.get();
+        if (count == null) {
+            return 0;
+        }
+        if (count.outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(count.outer);
+        }
+        return count.statements;
+    }
+
+    // Statements so far in the innermost open count, 0 when nothing is being counted
+    public static long current() {
+        Count count = CURRENT.get();
+        return count == null ? 0 : count.statements;
+    }
+
+    // Every statement prepared since startup, whether or not a count was open
+    public static long total() {
+        return TOTAL.sum();
+    }
+
+    public static long measure(Runnable call) {
+        return measure(() -> {
+            call.run();
+            return null;
+        }).statements();
+    }
+
+    public static <T> Measured<T> measure(Supplier<T> call) {
+        start();
+        boolean completed = false;
+        try {
+            T result = call.get();
+            completed = true;
+            return new Measured<>(result, stop());
+        } finally {
+            if (!completed) {
+                stop();
+            }
+        }
+    }
+
+    static void increment() {
+        TOTAL.increment();
+        for (Count count = CURRENT.get(); count != null; count = count.outer) {
+            count.statements++;
+        }
+    }
+
+    public record Measured<T>(T result, long statements) {
+    }
+
+    private static final class Count {
+
+        private final Count outer;
+        private long statements;
+
+        private Count(Count outer) {
+            this.outer = outer;
+        }
+    }
+}
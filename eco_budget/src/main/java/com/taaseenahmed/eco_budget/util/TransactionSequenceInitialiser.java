@@ -0,0 +1,35 @@
+package com.taaseenahmed.eco_budget.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Transaction IDs used to come from an IDENTITY column and now come from the pooled transaction_seq sequence.
+// On databases created before that change, move the sequence past the existing IDs so inserts cannot collide.
+// With the pooled optimizer the IDs handed out after nextval returns v are v-49..v, so a sequence whose last value
+// is above every existing ID is already safe and is left alone; moving it anyway would skip a block on every restart.
+@Slf4j
+@Component
+@Order(0)
+public class TransactionSequenceInitialiser implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Constructor injection
+    public TransactionSequenceInitialiser(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transaction", Long.class);
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM transaction_seq", Long.class);
+        if (maxId != null && lastValue != null && lastValue <= maxId) {
+            // The next nextval then returns maxId + 50, whose block starts right after the highest existing ID
+            jdbcTemplate.queryForObject("SELECT setval('transaction_seq', ?)", Long.class, maxId);
+            log.info("transaction_seq moved from {} to {}, past the existing transaction IDs", lastValue, maxId);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.taaseenahmed.eco_budget;
+
+import com.taaseenahmed.eco_budget.config.QueryCountFilter;
+import com.taaseenahmed.eco_budget.util.QueryCounter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pins how many SQL statements a call or an endpoint may cost, so an N+1 fails the build instead of slowing production down.
+// Calls are counted on the test thread; endpoints through the X-Query-Count header, which needs query-count.header-enabled=true.
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertMaxQueries(long max, Supplier<T> call) {
+        QueryCounter.Measured<T> measured = QueryCounter.measure(call);
+        assertThat(measured.statements()).as("SQL statements").isLessThanOrEqualTo(max);
+        return measured.result();
+    }
+
+    public static void assertMaxQueries(long max, Runnable call) {
+        assertThat(QueryCounter.measure(call)).as("SQL statements").isLessThanOrEqualTo(max);
+    }
+
+    // MockMvc: andExpect(maxQueries(3))
+    public static ResultMatcher maxQueries(long max) {
+        return result -> {
+            String header = result.getResponse().getHeader(QueryCountFilter.HEADER);
+            assertThat(header).as(QueryCountFilter.HEADER + " header").isNotNull();
+            assertThat(Long.parseLong(header)).as("SQL statements for " + result.getRequest().getRequestURI()).isLessThanOrEqualTo(max);
+        };
+    }
+}
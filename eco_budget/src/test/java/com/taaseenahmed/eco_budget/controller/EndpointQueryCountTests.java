@@ -0,0 +1,248 @@
+package com.taaseenahmed.eco_budget.controller;
+
+import com.taaseenahmed.eco_budget.config.QueryCountFilter;
+import com.taaseenahmed.eco_budget.config.QueryCountHeaderAdvice;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.Budget;
+import com.taaseenahmed.eco_budget.entity.Category;
+import com.taaseenahmed.eco_budget.entity.Goal;
+import com.taaseenahmed.eco_budget.entity.Role;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.service.AnalyticsService;
+import com.taaseenahmed.eco_budget.service.AppUserCache;
+import com.taaseenahmed.eco_budget.service.BudgetService;
+import com.taaseenahmed.eco_budget.service.CarbonEnrichmentService;
+import com.taaseenahmed.eco_budget.service.CarbonMultiplierService;
+import com.taaseenahmed.eco_budget.service.CategoryService;
+import com.taaseenahmed.eco_budget.service.DailyRollupService;
+import com.taaseenahmed.eco_budget.service.EmissionFactorEngine;
+import com.taaseenahmed.eco_budget.service.GoalService;
+import com.taaseenahmed.eco_budget.service.TransactionExportService;
+import com.taaseenahmed.eco_budget.service.TransactionImportService;
+import com.taaseenahmed.eco_budget.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.taaseenahmed.eco_budget.QueryCountAssertions.maxQueries;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement budgets for the read endpoints, measured through the real controllers, QueryCountFilter and its header.
+// The user has ten budgets, goals and transactions spread over five categories, so a per-row or per-category query
+// blows the budget; raise a number only together with the change that needs it.
+// Authentication is set up directly: its user lookup is normally answered by AppUserCache and is not part of these budgets.
+// Recommendations and benchmarks (jsonb documents, ChatGPT), import/export and the write endpoints rely on Postgres-only
+// SQL and are not covered by this H2 slice.
+@DataJpaTest
+@Import({BudgetService.class, GoalService.class, CategoryService.class, TransactionService.class, AnalyticsService.class,
+        DailyRollupService.class, BudgetController.class, GoalController.class, CategoryController.class,
+        TransactionController.class, AnalyticsController.class})
+class EndpointQueryCountTests {
+
+    private static final int ITEMS = 10;
+    private static final int CATEGORIES = 5;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 31, 23, 59);
+
+    @MockBean
+    private CarbonMultiplierService carbonMultiplierService;
+
+    @MockBean
+    private EmissionFactorEngine emissionFactorEngine;
+
+    @MockBean
+    private CarbonEnrichmentService carbonEnrichmentService;
+
+    @MockBean
+    private AppUserCache appUserCache;
+
+    @MockBean
+    private TransactionImportService transactionImportService;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private BudgetController budgetController;
+
+    @Autowired
+    private GoalController goalController;
+
+    @Autowired
+    private CategoryController categoryController;
+
+    @Autowired
+    private TransactionController transactionController;
+
+    @Autowired
+    private AnalyticsController analyticsController;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private MockMvc mockMvc;
+    private AppUser owner;
+    private Long budgetId;
+    private Long goalId;
+    private Long transactionId;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("owner@example.com"));
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(entityManager.persist(new Category("Category " + i, 0.5)));
+        }
+        for (int i = 0; i < ITEMS; i++) {
+            Category category = categories.get(i % CATEGORIES);
+            budgetId = entityManager.persist(budget(category)).getId();
+            goalId = entityManager.persist(goal(category)).getId();
+            transactionId = entityManager.persist(transaction(category, START.plusDays(i))).getId();
+        }
+        entityManager.flush();
+        dailyRollupService.rebuildForUser(owner.getId());
+
+        QueryCountFilter queryCountFilter = new QueryCountFilter(20, true);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(budgetController, goalController, categoryController, transactionController, analyticsController)
+                .addFilters(queryCountFilter)
+                .setControllerAdvice(new QueryCountHeaderAdvice(queryCountFilter))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(owner, null, owner.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void budgetListing() throws Exception {
+        perform("/api/budgets/user").andExpect(maxQueries(3));
+    }
+
+    @Test
+    void budgetById() throws Exception {
+        perform("/api/budgets/" + budgetId).andExpect(maxQueries(2));
+    }
+
+    @Test
+    void goalListing() throws Exception {
+        perform("/api/goal/user").andExpect(maxQueries(3));
+    }
+
+    @Test
+    void goalById() throws Exception {
+        perform("/api/goal/" + goalId).andExpect(maxQueries(2));
+    }
+
+    @Test
+    void categoryListing() throws Exception {
+        perform("/api/categories").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void transactionListing() throws Exception {
+        perform("/api/transaction/user").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void transactionPage() throws Exception {
+        perform("/api/transaction/user/page?limit=5").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void allTransactions() throws Exception {
+        perform("/api/transaction").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void transactionById() throws Exception {
+        perform("/api/transaction/" + transactionId).andExpect(maxQueries(2));
+    }
+
+    @Test
+    void analyticsSummary() throws Exception {
+        perform("/api/analytics/summary?from=2024-01-01&to=2024-01-31").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void analyticsCategories() throws Exception {
+        perform("/api/analytics/categories?from=2024-01-01&to=2024-01-31").andExpect(maxQueries(1));
+    }
+
+    @Test
+    void analyticsTimeSeries() throws Exception {
+        perform("/api/analytics/timeseries?from=2024-01-01&to=2024-01-31").andExpect(maxQueries(1));
+    }
+
+    // Requests share the test's transaction, so each starts with an empty persistence context as a real request would
+    private ResultActions perform(String uri) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        return mockMvc.perform(get(uri)).andExpect(status().isOk());
+    }
+
+    private AppUser user(String email) {
+        return AppUser.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .password("password")
+                .role(Role.USER)
+                .build();
+    }
+
+    private Budget budget(Category category) {
+        Budget budget = new Budget();
+        budget.setAppUser(owner);
+        budget.setCategory(category);
+        budget.setAmount(200.0);
+        budget.setStartDate(START);
+        budget.setEndDate(END);
+        return budget;
+    }
+
+    private Goal goal(Category category) {
+        Goal goal = new Goal();
+        goal.setAppUser(owner);
+        goal.setCategory(category);
+        goal.setAmount(50.0);
+        goal.setStartDate(START);
+        goal.setEndDate(END);
+        return goal;
+    }
+
+    private Transaction transaction(Category category, LocalDateTime date) {
+        return Transaction.builder()
+                .appUser(owner)
+                .category(category)
+                .amount(new BigDecimal("12.50"))
+                .type("Expense")
+                .date(date)
+                .carbonFootprint(6.25)
+                .build();
+    }
+}
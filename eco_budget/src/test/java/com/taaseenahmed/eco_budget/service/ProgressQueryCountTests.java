@@ -0,0 +1,159 @@
+package com.taaseenahmed.eco_budget.service;
+
+import com.taaseenahmed.eco_budget.dto.response.BudgetDTO;
+import com.taaseenahmed.eco_budget.dto.response.GoalDTO;
+import com.taaseenahmed.eco_budget.entity.AppUser;
+import com.taaseenahmed.eco_budget.entity.Budget;
+import com.taaseenahmed.eco_budget.entity.Category;
+import com.taaseenahmed.eco_budget.entity.Goal;
+import com.taaseenahmed.eco_budget.entity.Role;
+import com.taaseenahmed.eco_budget.entity.Transaction;
+import com.taaseenahmed.eco_budget.util.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.taaseenahmed.eco_budget.QueryCountAssertions.assertMaxQueries;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Budget and goal listings must cost the same number of SQL statements however many items the user has.
+@DataJpaTest
+@Import({BudgetService.class, GoalService.class, DailyRollupService.class})
+class ProgressQueryCountTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 31, 23, 59);
+
+    @MockBean
+    private CategoryService categoryService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private GoalService goalService;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private AppUser owner;
+    private AppUser otherUser;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("owner@example.com"));
+        otherUser = entityManager.persist(user("other@example.com"));
+        food = entityManager.persist(new Category("Food", 0.5));
+    }
+
+    @Test
+    void budgetListingRunsConstantNumberOfQueries() {
+        addBudgets(1);
+        long withOneBudget = countStatements(() -> budgetService.getBudgetsByUser(owner));
+
+        addBudgets(9);
+        clearPersistenceContext();
+        assertMaxQueries(withOneBudget, () -> budgetService.getBudgetsByUser(owner));
+    }
+
+    @Test
+    void goalListingRunsConstantNumberOfQueries() {
+        addGoals(1);
+        long withOneGoal = countStatements(() -> goalService.getGoalsByUser(owner));
+
+        addGoals(9);
+        clearPersistenceContext();
+        assertMaxQueries(withOneGoal, () -> goalService.getGoalsByUser(owner));
+    }
+
+    @Test
+    void progressOnlyCountsTheOwnersTransactions() {
+        addBudgets(1);
+        addGoals(1);
+        entityManager.persist(transaction(owner, "12.50", 6.25, START.plusDays(3)));
+        entityManager.persist(transaction(owner, "7.50", 3.75, START.plusDays(10)));
+        entityManager.persist(transaction(owner, "100.00", 50.0, END.plusDays(1))); // Outside the period
+        entityManager.persist(transaction(otherUser, "40.00", 20.0, START.plusDays(5))); // Someone else's spending
+        entityManager.flush();
+        entityManager.clear();
+
+        // Rows were inserted directly, so derive the rollup the way the repair job would
+        dailyRollupService.rebuildForUser(owner.getId());
+        dailyRollupService.rebuildForUser(otherUser.getId());
+        assertThat(dailyRollupService.matchesTransactions(owner.getId())).isTrue();
+
+        List<BudgetDTO> budgets = budgetService.getBudgetsByUser(owner);
+        List<GoalDTO> goals = goalService.getGoalsByUser(owner);
+
+        assertThat(budgets).singleElement().extracting(BudgetDTO::getTotalSpent).isEqualTo(20.0);
+        assertThat(goals).singleElement().extracting(GoalDTO::getTotalCarbonFootprint).isEqualTo(10.0);
+    }
+
+    private long countStatements(Supplier<?> call) {
+        clearPersistenceContext();
+        return QueryCounter.measure(call).statements();
+    }
+
+    private void clearPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void addBudgets(int count) {
+        for (int i = 0; i < count; i++) {
+            Budget budget = new Budget();
+            budget.setAppUser(owner);
+            budget.setCategory(food);
+            budget.setAmount(200.0);
+            budget.setStartDate(START);
+            budget.setEndDate(END);
+            entityManager.persist(budget);
+        }
+    }
+
+    private void addGoals(int count) {
+        for (int i = 0; i < count; i++) {
+            Goal goal = new Goal();
+            goal.setAppUser(owner);
+            goal.setCategory(food);
+            goal.setAmount(50.0);
+            goal.setStartDate(START);
+            goal.setEndDate(END);
+            entityManager.persist(goal);
+        }
+    }
+
+    private AppUser user(String email) {
+        return AppUser.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .password("password")
+                .role(Role.USER)
+                .build();
+    }
+
+    private Transaction transaction(AppUser appUser, String amount, double carbonFootprint, LocalDateTime date) {
+        return Transaction.builder()
+                .appUser(appUser)
+                .category(food)
+                .amount(new BigDecimal(amount))
+                .type("Expense")
+                .date(date)
+                .carbonFootprint(carbonFootprint)
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package com.taaseenahmed.eco_budget.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Word-boundary, longest-match and normalisation rules of the emission-factor keyword matcher.
+class AhoCorasickMatcherTests {
+
+    @Test
+    void matchesWholeWordsOnly() {
+        AhoCorasickMatcher<String> matcher = matcher("gas", "fuel", "bus", "transit");
+
+        assertThat(matcher.findLongest("Shell gas station")).isEqualTo("fuel");
+        assertThat(matcher.findLongest("GAS")).isEqualTo("fuel");
+        assertThat(matcher.findLongest("Trip to Las Vegas")).isNull();
+        assertThat(matcher.findLongest("gasoline")).isNull();
+        assertThat(matcher.findLongest("Business lunch")).isNull();
+        assertThat(matcher.findLongest("minibus")).isNull();
+    }
+
+    @Test
+    void matchesAtTheStartAndEndOfTheText() {
+        AhoCorasickMatcher<String> matcher = matcher("bus", "transit");
+
+        assertThat(matcher.findLongest("bus ticket")).isEqualTo("transit");
+        assertThat(matcher.findLongest("city bus")).isEqualTo("transit");
+    }
+
+    @Test
+    void longestKeywordWins() {
+        AhoCorasickMatcher<String> matcher = matcher("bus", "short", "bus fare", "long", "taxi", "car", "tram", "rail");
+
+        assertThat(matcher.findLongest("City bus fare")).isEqualTo("long");
+        assertThat(matcher.findLongest("Tram then taxi")).isEqualTo("rail"); // Ties go to the earliest
+    }
+
+    @Test
+    void separatorRunsCountAsOneSpace() {
+        AhoCorasickMatcher<String> matcher = matcher("bus fare", "transit", "7-eleven", "convenience");
+
+        assertThat(matcher.findLongest("BUS  --  FARE")).isEqualTo("transit");
+        assertThat(matcher.findLongest("  7 Eleven #123")).isEqualTo("convenience");
+        assertThat(matcher.findLongest("busfare")).isNull();
+    }
+
+    @Test
+    void punctuationInKeywordsIsNormalisedLikeText() {
+        AhoCorasickMatcher<String> matcher = matcher("McDonald's", "fast food");
+
+        assertThat(matcher.findLongest("MCDONALD'S #4411")).isEqualTo("fast food");
+        assertThat(matcher.findLongest("mcdonald s")).isEqualTo("fast food");
+    }
+
+    @Test
+    void nothingMatchesWithoutKeywordsOrText() {
+        AhoCorasickMatcher<String> matcher = matcher(" -- ", "blank");
+
+        assertThat(matcher.size()).isZero();
+        assertThat(matcher.findLongest("anything")).isNull();
+        assertThat(matcher("gas", "fuel").findLongest(null)).isNull();
+    }
+
+    private static AhoCorasickMatcher<String> matcher(String... keywordsAndValues) {
+        Map<String, String> keywords = new LinkedHashMap<>();
+        for (int i = 0; i < keywordsAndValues.length; i += 2) {
+            keywords.put(keywordsAndValues[i], keywordsAndValues[i + 1]);
+        }
+        return new AhoCorasickMatcher<>(keywords);
+    }
+}
@@ -0,0 +1,153 @@
+package com.taaseenahmed.eco_budget.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// State transitions of the LLM circuit breaker, driven by a hand-moved clock.
+class CircuitBreakerTests {
+
+    private static final long OPEN_MILLIS = 30_000;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 50, OPEN_MILLIS, 2, clock);
+
+        fail(breaker, 4);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isEqualTo(100.0);
+
+        fail(breaker, 1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 10, 50, OPEN_MILLIS, 2, clock);
+
+        succeed(breaker, 5);
+        fail(breaker, 4);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(breaker, 1);
+        assertThat(breaker.getFailureRate()).isEqualTo(50.0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void oldestOutcomeLeavesTheSlidingWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 60, OPEN_MILLIS, 2, clock);
+
+        fail(breaker, 2);
+        succeed(breaker, 2);
+        fail(breaker, 1); // Window is now F S S F; counting all five calls would be 60% and open
+
+        assertThat(breaker.getBufferedCalls()).isEqualTo(4);
+        assertThat(breaker.getFailureRate()).isEqualTo(50.0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void refusesCallsWhileOpenAndProbesAfterTheOpenDuration() {
+        CircuitBreaker breaker = openBreaker(2);
+
+        clock.advance(OPEN_MILLIS - 1);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        clock.advance(1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.isCallPermitted()).isTrue();
+        assertThat(breaker.isCallPermitted()).isTrue(); // Checking claims nothing
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    void closesWithAnEmptyWindowOnceEveryProbeSucceeds() {
+        CircuitBreaker breaker = openBreaker(2);
+        clock.advance(OPEN_MILLIS);
+
+        breaker.tryAcquire();
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getBufferedCalls()).isZero();
+        assertThat(breaker.getFailureRate()).isZero();
+    }
+
+    @Test
+    void failedProbeReopensForAFullOpenDuration() {
+        CircuitBreaker breaker = openBreaker(2);
+        clock.advance(OPEN_MILLIS);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        clock.advance(OPEN_MILLIS - 1);
+        assertThat(breaker.tryAcquire()).isFalse();
+        clock.advance(1);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private CircuitBreaker openBreaker(int halfOpenProbes) {
+        CircuitBreaker breaker = new CircuitBreaker(4, 2, 50, OPEN_MILLIS, halfOpenProbes, clock);
+        fail(breaker, 2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    private static void succeed(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onSuccess();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
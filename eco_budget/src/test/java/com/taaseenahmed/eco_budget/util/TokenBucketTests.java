@@ -0,0 +1,63 @@
+package com.taaseenahmed.eco_budget.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Refill arithmetic of the ChatGPT rate limiter, driven by a hand-moved nanosecond clock.
+class TokenBucketTests {
+
+    private long now = 42;
+
+    @Test
+    void startsFullAndRefusesOnceTheBurstIsSpent() {
+        TokenBucket bucket = new TokenBucket(1, 3, () -> now);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void keepsFractionalRefillAcrossRefusedCalls() {
+        TokenBucket bucket = new TokenBucket(2, 1, () -> now);
+        assertThat(bucket.tryAcquire()).isTrue();
+
+        advanceMillis(250);
+        assertThat(bucket.tryAcquire()).isFalse(); // Half a token so far
+        assertThat(bucket.getAvailableTokens()).isCloseTo(0.5, within(1e-9));
+
+        advanceMillis(250);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.getAvailableTokens()).isCloseTo(0.0, within(1e-9));
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() {
+        TokenBucket bucket = new TokenBucket(5, 2, () -> now);
+        bucket.tryAcquire();
+        bucket.tryAcquire();
+
+        advanceMillis(10_000);
+        assertThat(bucket.getAvailableTokens()).isEqualTo(2.0);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void burstBelowOneStillAdmitsOneCall() {
+        TokenBucket bucket = new TokenBucket(1, 0, () -> now);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -38,6 +38,8 @@ const CarbonFootprint = () => {
     const [previousMonthData, setPreviousMonthData] = useState([]);
     const [recommendations, setRecommendations] = useState([]);
     const [benchmarks, setBenchmarks] = useState([]);
+    const [recommendationsPending, setRecommendationsPending] = useState(false);
+    const [benchmarksPending, setBenchmarksPending] = useState(false);
 
     // State - UI controls
     const [loadingRecommendations, setLoadingRecommendations] = useState(false);
@@ -105,6 +107,7 @@ const CarbonFootprint = () => {
                 headers: { Authorization: `Bearer ${token}` },
             });
             setRecommendations(response.data.carbonFootprintRecommendations);
+            setRecommendationsPending(response.data.refreshPending);
         } catch (error) {
             console.error('Error fetching recommendations:', error);
             alert('Failed to fetch recommendations. Please try again.');
@@ -124,6 +127,7 @@ const CarbonFootprint = () => {
                 headers: { Authorization: `Bearer ${token}` },
             });
             setBenchmarks(response.data.benchmarks);
+            setBenchmarksPending(response.data.refreshPending);
         } catch (error) {
             console.error('Error fetching benchmarks:', error);
             alert('Failed to fetch benchmarks. Please try again.');
@@ -593,6 +597,8 @@ const CarbonFootprint = () => {
                     <div className="empty-recommendations">
                         {loadingRecommendations ? (
                             <p>Generating personalized recommendations...</p>
+                        ) : recommendationsPending ? (
+                            <p>Your recommendations are being prepared. Check back in a moment.</p>
                         ) : (
                             <p>Generate recommendations to reduce your carbon footprint.</p>
                         )}
@@ -642,6 +648,8 @@ const CarbonFootprint = () => {
                     <div className="empty-benchmarks">
                         {loadingBenchmarks ? (
                             <p>Loading carbon footprint benchmarks...</p>
+                        ) : benchmarksPending ? (
+                            <p>Your benchmarks are being prepared. Check back in a moment.</p>
                         ) : (
                             <p>View benchmarks to compare your carbon footprint with others.</p>
                         )}
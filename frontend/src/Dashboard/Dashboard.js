@@ -30,16 +30,13 @@ ChartJS.register(
  */
 const Dashboard = () => {
     // State management
-    const [transactions, setTransactions] = useState([]);
     const [budgets, setBudgets] = useState([]);
     // eslint-disable-next-line no-unused-vars
     const [goals, setGoals] = useState([]);
-    const [categories, setCategories] = useState([]);
     const [cumulativeData, setCumulativeData] = useState([]);
-    // eslint-disable-next-line no-unused-vars
-    const [individualData, setIndividualData] = useState([]);
     const [totalSpending, setTotalSpending] = useState(0);
     const [totalCarbonFootprint, setTotalCarbonFootprint] = useState(0);
+    const [transactionCount, setTransactionCount] = useState(0);
     const [recentTransactions, setRecentTransactions] = useState([]);
     const [budgetAlerts, setBudgetAlerts] = useState([]);
     const [spendingByCategory, setSpendingByCategory] = useState({ labels: [], data: [] });
@@ -49,41 +46,12 @@ const Dashboard = () => {
     const [timeFrame, setTimeFrame] = useState('month'); // 'week', 'month', 'year'
 
     /**
-     * Fetches all necessary data from APIs
-     */
-    const fetchData = useCallback(async () => {
-        setIsLoading(true);
-        try {
-            const token = localStorage.getItem('jwtToken');
-            const authHeader = { headers: { Authorization: `Bearer ${token}` } };
-
-            // Fetch all necessary data in parallel for better performance
-            const [transactionsRes, budgetsRes, goalsRes, categoriesRes] = await Promise.all([
-                axios.get('/api/transaction/user', authHeader),
-                axios.get('/api/budgets/user', authHeader),
-                axios.get('/api/goal/user', authHeader),
-                axios.get('/api/categories', authHeader)
-            ]);
-
-            setTransactions(transactionsRes.data);
-            setBudgets(budgetsRes.data);
-            setGoals(goalsRes.data);
-            setCategories(categoriesRes.data);
-        } catch (error) {
-            console.error('Error fetching dashboard data:', error);
-        } finally {
-            setIsLoading(false);
-        }
-    }, []);
-
-    /**
-     * Filters transactions based on selected time frame
+     * Works out the date range and chart granularity for the selected time frame
      *
-     * @param {Array} transactions - All transactions
      * @param {string} timeFrame - Selected time period ('week', 'month', 'year')
-     * @returns {Array} - Filtered transactions
+     * @returns {Object} - ISO from/to dates and the time series granularity
      */
-    const filterTransactions = useCallback((transactions, timeFrame) => {
+    const resolvePeriod = useCallback((timeFrame) => {
         const now = new Date();
         let startDate;
 
@@ -101,79 +69,107 @@ const Dashboard = () => {
                 startDate = new Date(now.getFullYear(), now.getMonth(), 1);
         }
 
-        // Filter transactions by date and type
-        return transactions.filter(transaction =>
-            new Date(transaction.date) >= startDate &&
-            transaction.type.toLowerCase() === 'expense'
-        );
+        const toIsoDate = (date) => `${date.getFullYear()}-${String(date.getMonth() + 1).padStart(2, '0')}-${String(date.getDate()).padStart(2, '0')}`;
+        return {
+            from: toIsoDate(startDate),
+            to: toIsoDate(now),
+            granularity: timeFrame === 'year' ? 'week' : 'day'
+        };
     }, []);
 
     /**
-     * Processes transaction data for charts and summaries
+     * Fetches the aggregated dashboard figures for the time frame from the analytics API
      *
-     * @param {Array} transactions - All transactions
      * @param {string} timeFrame - Selected time period
-     * @returns {Array} - Filtered transactions for further processing
      */
-    const processTransactionData = useCallback((transactions, timeFrame) => {
-        const filteredTransactions = filterTransactions(transactions, timeFrame);
+    const fetchData = useCallback(async (timeFrame) => {
+        setIsLoading(true);
+        try {
+            const token = localStorage.getItem('jwtToken');
+            const { from, to, granularity } = resolvePeriod(timeFrame);
+            const authHeader = { headers: { Authorization: `Bearer ${token}` } };
+            const periodParams = { headers: authHeader.headers, params: { from, to } };
 
-        // Sort transactions by date
-        const sortedTransactions = [...filteredTransactions].sort(
-            (a, b) => new Date(a.date) - new Date(b.date)
-        );
+            // Fetch all necessary data in parallel for better performance
+            const [summaryRes, categoriesRes, seriesRes, recentRes, budgetsRes, goalsRes] = await Promise.all([
+                axios.get('/api/analytics/summary', periodParams),
+                axios.get('/api/analytics/categories', periodParams),
+                axios.get('/api/analytics/timeseries', { ...periodParams, params: { from, to, granularity } }),
+                axios.get('/api/transaction/user/page', {
+                    headers: authHeader.headers,
+                    params: { from: `${from}T00:00:00`, type: 'Expense', limit: 5 }
+                }),
+                axios.get('/api/budgets/user', authHeader),
+                axios.get('/api/goal/user', authHeader)
+            ]);
 
-        // Calculate cumulative spending over time
+            processSummary(summaryRes.data);
+            processCategories(categoriesRes.data);
+            processTimeSeries(seriesRes.data);
+            setRecentTransactions(recentRes.data.items);
+            setBudgets(budgetsRes.data);
+            setGoals(goalsRes.data);
+        } catch (error) {
+            console.error('Error fetching dashboard data:', error);
+        } finally {
+            setIsLoading(false);
+        }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [resolvePeriod]);
+
+    /**
+     * Stores the headline totals for the period
+     *
+     * @param {Object} summary - Analytics summary for the period
+     */
+    const processSummary = (summary) => {
+        setTotalSpending(Number(summary.totalExpense).toFixed(2));
+        setTotalCarbonFootprint(Number(summary.totalCarbonFootprint).toFixed(2));
+        setTransactionCount(summary.transactionCount);
+    };
+
+    /**
+     * Splits the per-category breakdown into spending and carbon doughnut data
+     *
+     * @param {Array} breakdown - Per-category totals for the period
+     */
+    const processCategories = (breakdown) => {
+        const spending = breakdown.filter(category => Number(category.expense) > 0);
+        setSpendingByCategory({
+            labels: spending.map(category => category.categoryName),
+            data: spending.map(category => Number(category.expense))
+        });
+
+        const carbon = breakdown.filter(category => category.carbonFootprint > 0);
+        setCarbonByCategory({
+            labels: carbon.map(category => category.categoryName),
+            data: carbon.map(category => category.carbonFootprint)
+        });
+    };
+
+    /**
+     * Turns the spending time series into a cumulative line
+     *
+     * @param {Object} series - Time series of per-bucket totals
+     */
+    const processTimeSeries = (series) => {
         let cumulativeSum = 0;
-        const cumulative = sortedTransactions.map(transaction => {
-            cumulativeSum += parseFloat(transaction.amount) || 0;
+        setCumulativeData(series.points.map(point => {
+            cumulativeSum += Number(point.expense) || 0;
             return {
-                date: transaction.date,
+                date: point.periodStart,
                 cumulativeSum,
-                formattedDate: new Date(transaction.date).toLocaleDateString()
+                formattedDate: new Date(point.periodStart).toLocaleDateString()
             };
-        });
-
-        // Map individual transaction amounts (for potential future features)
-        const individual = sortedTransactions.map(transaction => ({
-            date: transaction.date,
-            amount: parseFloat(transaction.amount) || 0,
         }));
-
-        // Calculate total spending amount
-        const total = filteredTransactions.reduce(
-            (sum, transaction) => sum + (parseFloat(transaction.amount) || 0),
-            0
-        );
-
-        // Calculate total carbon footprint
-        const totalCarbon = filteredTransactions.reduce(
-            (sum, transaction) => sum + (parseFloat(transaction.carbonFootprint) || 0),
-            0
-        );
-
-        // Get recent transactions (latest 5)
-        const recent = [...sortedTransactions]
-            .reverse()
-            .slice(0, 5);
-
-        // Update state with processed data
-        setCumulativeData(cumulative);
-        setIndividualData(individual);
-        setTotalSpending(total.toFixed(2));
-        setTotalCarbonFootprint(totalCarbon.toFixed(2));
-        setRecentTransactions(recent);
-
-        return filteredTransactions;
-    }, [filterTransactions]);
+    };
 
     /**
      * Calculates budget alerts based on spending progress
      *
      * @param {Array} budgets - User budgets
-     * @param {Array} transactions - Filtered transactions
      */
-    const calculateBudgetAlerts = useCallback((budgets, transactions) => {
+    const calculateBudgetAlerts = useCallback((budgets) => {
         const alerts = [];
 
         budgets.forEach(budget => {
@@ -209,77 +205,15 @@ const Dashboard = () => {
         setBudgetAlerts(alerts);
     }, []);
 
-    /**
-     * Calculates spending amount by category
-     *
-     * @param {Array} transactions - Filtered transactions
-     * @param {Array} categories - Available categories
-     */
-    const calculateSpendingByCategory = useCallback((transactions, categories) => {
-        const categoryTotals = {};
-
-        // Sum up spending by category
-        transactions.forEach(transaction => {
-            const categoryName = transaction.category?.name || 'Uncategorized';
-            if (!categoryTotals[categoryName]) {
-                categoryTotals[categoryName] = 0;
-            }
-            categoryTotals[categoryName] += parseFloat(transaction.amount) || 0;
-        });
-
-        const labels = Object.keys(categoryTotals);
-        const data = Object.values(categoryTotals);
-
-        setSpendingByCategory({ labels, data });
-    }, []);
-
-    /**
-     * Calculates carbon footprint by category
-     *
-     * @param {Array} transactions - Filtered transactions
-     * @param {Array} categories - Available categories
-     */
-    const calculateCarbonByCategory = useCallback((transactions, categories) => {
-        const categoryTotals = {};
-
-        // Sum up carbon footprint by category
-        transactions.forEach(transaction => {
-            const categoryName = transaction.category?.name || 'Uncategorized';
-            if (!categoryTotals[categoryName]) {
-                categoryTotals[categoryName] = 0;
-            }
-            categoryTotals[categoryName] += parseFloat(transaction.carbonFootprint) || 0;
-        });
-
-        const labels = Object.keys(categoryTotals);
-        const data = Object.values(categoryTotals);
-
-        setCarbonByCategory({ labels, data });
-    }, []);
-
-    // Initial data fetch on component mount
+    // Fetch the aggregates whenever the time frame changes
     useEffect(() => {
-        fetchData();
-    }, [fetchData]);
+        fetchData(timeFrame);
+    }, [fetchData, timeFrame]);
 
-    // Process data when transactions or time frame changes
+    // Recalculate alerts when budgets change
     useEffect(() => {
-        if (transactions.length > 0) {
-            const filteredTransactions = processTransactionData(transactions, timeFrame);
-            calculateBudgetAlerts(budgets, filteredTransactions);
-            calculateSpendingByCategory(filteredTransactions, categories);
-            calculateCarbonByCategory(filteredTransactions, categories);
-        }
-    }, [
-        transactions,
-        budgets,
-        categories,
-        timeFrame,
-        processTransactionData,
-        calculateBudgetAlerts,
-        calculateSpendingByCategory,
-        calculateCarbonByCategory
-    ]);
+        calculateBudgetAlerts(budgets);
+    }, [budgets, calculateBudgetAlerts]);
 
     // Chart configurations
     const chartConfigs = {
@@ -500,7 +434,7 @@ const Dashboard = () => {
                     <div className="dashboard-summary-content">
                         <h3>Transactions</h3>
                         <div className="dashboard-summary-value">
-                            {filterTransactions(transactions, timeFrame).length}
+                            {transactionCount}
                         </div>
                         <div className="dashboard-summary-period">This {timeFrame}</div>
                     </div>
@@ -81,6 +81,7 @@ const Spending = () => {
     const [cumulativeData, setCumulativeData] = useState([]);
     const [previousMonthData, setPreviousMonthData] = useState([]);
     const [recommendations, setRecommendations] = useState([]);
+    const [recommendationsPending, setRecommendationsPending] = useState(false);
 
     /**
      * Resets new transaction form to default values
@@ -170,6 +171,7 @@ const Spending = () => {
                 headers: { Authorization: `Bearer ${token}` },
             });
             setRecommendations(response.data.spendingRecommendations);
+            setRecommendationsPending(response.data.refreshPending);
         } catch (error) {
             console.error('Error fetching recommendations:', error);
             alert('Failed to fetch recommendations. Please try again.');
@@ -942,6 +944,8 @@ const Spending = () => {
                         <div className="empty-recommendations">
                             {loading ? (
                                 <p>Generating personalized recommendations...</p>
+                            ) : recommendationsPending ? (
+                                <p>Your recommendations are being prepared. Check back in a moment.</p>
                             ) : (
                                 <p>Generate recommendations based on your spending patterns.</p>
                             )}